@@ -0,0 +1,46 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.gp.sonarqube.custom.rules.RulesList;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author GP
+ * <p>
+ * entry point of the benchmarks jar. runs every benchmark of this module
+ * against every check listed in RulesList.getJavaChecks(), and writes the
+ * results in the jmh json format so that two plugin versions can be
+ * compared.
+ * <p>
+ * usage: java -jar target/benchmarks.jar [result file]. the default result
+ * file is jmh-result.json.
+ */
+public final class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+        Options options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark")
+                .param("check", checkNames())
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+
+    private static String[] checkNames() {
+        return RulesList.getJavaChecks().stream()
+                .map(Class::getSimpleName)
+                .toArray(String[]::new);
+    }
+}
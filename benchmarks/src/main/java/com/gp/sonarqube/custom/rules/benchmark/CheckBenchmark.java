@@ -0,0 +1,102 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.gp.sonarqube.custom.rules.RulesList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.model.VisitorsBridgeForTests;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author GP
+ * <p>
+ * benchmark of the checks of the plugin. the generated corpus is parsed and
+ * semantically analysed once per iteration, outside of the measurement, and
+ * every benchmark operation runs one check over the complete file. the score
+ * is hence the visitNode throughput of the check, plus the cost of the tree
+ * walk done by sonar-java.
+ * <p>
+ * the check parameter is the simple class name of a check listed in
+ * RulesList.getJavaChecks(). the BenchmarkRunner overrides the parameter with
+ * every check of the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+
+    @Param({"ConnectionCloseCheckRule", "StatementCloseCheckRule", "ResultSetCloseCheckRule"})
+    public String check;
+
+    @Param({"10", "100", "1000"})
+    public int methods;
+
+    private File source;
+    private JavaFileScanner scanner;
+    private JavaFileScannerContext context;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, ReflectiveOperationException {
+        source = JdbcCorpus.write("JdbcDao" + methods, methods);
+        scanner = (JavaFileScanner) checkClass(check).newInstance();
+    }
+
+    /**
+     * parse the corpus again before every iteration. the test context keeps
+     * the reported issues, so reusing it across iterations would let it grow
+     * for the whole benchmark.
+     */
+    @Setup(Level.Iteration)
+    public void parse() {
+        ContextCollector collector = new ContextCollector();
+        JavaAstScanner.scanSingleFileForTests(source, new VisitorsBridgeForTests(Collections.singletonList(collector), Collections.emptyList(), null));
+        context = collector.context;
+    }
+
+    @Benchmark
+    public JavaFileScanner visit() {
+        scanner.scanFile(context);
+        return scanner;
+    }
+
+    private static Class<? extends JavaCheck> checkClass(String simpleName) {
+        for (Class<? extends JavaCheck> checkClass : RulesList.getJavaChecks()) {
+            if (checkClass.getSimpleName().equals(simpleName)) {
+                return checkClass;
+            }
+        }
+        throw new IllegalArgumentException("No check named " + simpleName + " in RulesList");
+    }
+
+    /**
+     * scanner keeping the context of the parsed file
+     */
+    private static class ContextCollector implements JavaFileScanner {
+        private JavaFileScannerContext context;
+
+        @Override
+        public void scanFile(JavaFileScannerContext context) {
+            this.context = context;
+        }
+    }
+}
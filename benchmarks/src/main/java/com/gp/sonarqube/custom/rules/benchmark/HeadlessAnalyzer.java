@@ -0,0 +1,298 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.gp.sonarqube.custom.rules.RulesList;
+import com.sonar.sslr.api.RecognitionException;
+import org.sonar.check.Rule;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.VisitorsBridgeForTests;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * standalone entry point running the checks of RulesList.getJavaChecks()
+ * over a source directory, without a SonarQube server or scanner. meant for
+ * pre-commit hooks and quick local feedback. the analyzer drives the checks
+ * through VisitorsBridgeForTests, the test bridge of java-frontend: sonar-java
+ * 5.1 has no other way to run checks on a file outside of a scanner, but the
+ * bridge is not part of its api and may change with any java-frontend
+ * version. hence the analyzer lives in the benchmarks module next to the
+ * other tools, and is not shipped with the plugin.
+ * <p>
+ * the files are parsed and analysed by sonar-java's java-frontend on one
+ * worker per core. the checks keep state while visiting a file, so every
+ * worker creates its own instances of the checks, its own parser and its own
+ * bytecode class loader of the classpath, and takes the next file from a
+ * shared queue. the largest files are queued first so that no worker is left
+ * with a large file at the end of the run.
+ * <p>
+ * the issues are written sorted by file and line, one per line:
+ * path:line:column: [rule key] message. a file which can not be parsed is
+ * not analysed by the checks, and is reported with the parsing-error key on
+ * the line of the parse error. the process exits with the status 1 when an
+ * issue or a parse error is found, so that a hook can stop the commit.
+ */
+public final class HeadlessAnalyzer {
+    /**
+     * the rule key of the issues reporting a file which can not be parsed
+     */
+    public static final String PARSING_ERROR_KEY = "parsing-error";
+
+    private static final String JAVA_SUFFIX = ".java";
+    private static final Splitter CLASSPATH_SPLITTER = Splitter.on(File.pathSeparatorChar).trimResults().omitEmptyStrings();
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private HeadlessAnalyzer() {
+    }
+
+    /**
+     * an issue raised by a check on a file
+     */
+    public static final class Issue {
+        private final String path;
+        private final int line;
+        private final int column;
+        private final String ruleKey;
+        private final String message;
+
+        private Issue(String path, int line, int column, String ruleKey, String message) {
+            this.path = path;
+            this.line = line;
+            this.column = column;
+            this.ruleKey = ruleKey;
+            this.message = message;
+        }
+
+        /**
+         * @return the path of the file, relative to the analysed directory
+         */
+        public String path() {
+            return path;
+        }
+
+        /**
+         * @return the first line of the issue, 0 for an issue on the file
+         */
+        public int line() {
+            return line;
+        }
+
+        /**
+         * @return the first column of the issue, starting at 1
+         */
+        public int column() {
+            return column;
+        }
+
+        public String ruleKey() {
+            return ruleKey;
+        }
+
+        public String message() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return path + ":" + line + ":" + column + ": [" + ruleKey + "] " + message;
+        }
+    }
+
+    /**
+     * analyse the source directory, write the issues and exit with the
+     * status 1 if any issue is found
+     *
+     * @param args the source directory, the classpath (entries separated by
+     *             the path separator, may be empty), the issues file to
+     *             write, and optionally the number of threads
+     * @throws IOException          if a file can not be read or written
+     * @throws InterruptedException if the analysis is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3 || args.length > 4) {
+            throw new IllegalArgumentException("Usage: HeadlessAnalyzer <source directory> <classpath> <issues file> [threads]");
+        }
+        File sourceDirectory = new File(args[0]);
+        if (!sourceDirectory.isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + sourceDirectory);
+        }
+        List<File> classpath = new ArrayList<>();
+        for (String entry : CLASSPATH_SPLITTER.split(args[1])) {
+            classpath.add(new File(entry));
+        }
+        int threads = args.length == 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<File> files = sourceFiles(sourceDirectory.toPath());
+        List<Issue> issues = analyse(sourceDirectory.toPath(), files, classpath, threads);
+        try (Writer writer = Files.newBufferedWriter(new File(args[2]).toPath(), UTF_8)) {
+            for (Issue issue : issues) {
+                writer.append(issue.toString()).append('\n');
+            }
+        }
+        long parseErrors = issues.stream().filter(issue -> PARSING_ERROR_KEY.equals(issue.ruleKey)).count();
+        System.out.println((issues.size() - parseErrors) + " issue(s) and " + parseErrors + " parse error(s) in " + files.size() + " file(s), "
+                + threads + " thread(s), " + (System.nanoTime() - start) / 1_000_000 + " ms: " + args[2]);
+        if (!issues.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * run the checks over the files
+     *
+     * @param baseDirectory the directory the issue paths are relative to
+     * @param files         the source files to analyse
+     * @param classpath     the bytecode of the types the files use
+     * @param threads       the number of files analysed at once
+     * @return the issues sorted by file, line and column
+     */
+    public static List<Issue> analyse(Path baseDirectory, List<File> files, List<File> classpath, int threads) throws InterruptedException {
+        return analyse(baseDirectory, files, classpath, threads, RulesList.getJavaChecks());
+    }
+
+    /**
+     * run the given checks over the files. without any check, the files are
+     * only parsed and given a semantic model.
+     *
+     * @param baseDirectory the directory the issue paths are relative to
+     * @param files         the source files to analyse
+     * @param classpath     the bytecode of the types the files use
+     * @param threads       the number of files analysed at once
+     * @param checkClasses  the classes of the checks to run
+     * @return the issues sorted by file, line and column
+     */
+    public static List<Issue> analyse(Path baseDirectory, List<File> files, List<File> classpath, int threads,
+                                      List<Class<? extends JavaCheck>> checkClasses) throws InterruptedException {
+        Queue<File> queue = new ConcurrentLinkedQueue<>(files);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Issue>>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> new Worker(baseDirectory, classpath, checkClasses).run(queue)));
+        }
+        executor.shutdown();
+        List<Issue> issues = new ArrayList<>();
+        try {
+            for (Future<List<Issue>> worker : workers) {
+                issues.addAll(worker.get());
+            }
+        } catch (ExecutionException executionException) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Analysis failed", executionException.getCause());
+        }
+        issues.sort(Comparator.<Issue, String>comparing(issue -> issue.path)
+                .thenComparingInt(issue -> issue.line)
+                .thenComparingInt(issue -> issue.column)
+                .thenComparing(issue -> issue.ruleKey));
+        return issues;
+    }
+
+    /**
+     * @return the java files of the directory, the largest first
+     */
+    private static List<File> sourceFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(JAVA_SUFFIX) && Files.isRegularFile(path))
+                    .sorted(Comparator.<Path>comparingLong(HeadlessAnalyzer::size).reversed())
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * the checks, parser and semantic class loader of one thread
+     */
+    private static final class Worker {
+        private final Path baseDirectory;
+        private final ParseErrorRecordingBridge bridge;
+        private final JavaAstScanner scanner;
+
+        private Worker(Path baseDirectory, List<File> classpath, List<Class<? extends JavaCheck>> checkClasses) throws ReflectiveOperationException {
+            this.baseDirectory = baseDirectory;
+            List<JavaCheck> checks = new ArrayList<>();
+            for (Class<? extends JavaCheck> checkClass : checkClasses) {
+                checks.add(checkClass.newInstance());
+            }
+            bridge = new ParseErrorRecordingBridge(checks, classpath);
+            scanner = new JavaAstScanner(JavaParser.createParser(), null);
+            scanner.setVisitorBridge(bridge);
+        }
+
+        private List<Issue> run(Queue<File> queue) {
+            List<Issue> issues = new ArrayList<>();
+            File file;
+            while ((file = queue.poll()) != null) {
+                bridge.parseError = null;
+                scanner.scan(Collections.singletonList(file));
+                String path = baseDirectory.relativize(file.toPath()).toString();
+                RecognitionException parseError = bridge.parseError;
+                if (parseError != null) {
+                    // no check ran on the file, the first line of the message locates the error
+                    String message = Splitter.on('\n').split(parseError.getMessage()).iterator().next();
+                    issues.add(new Issue(path, parseError.getLine(), 0, PARSING_ERROR_KEY,
+                            "The file can not be parsed: " + CharMatcher.is(':').trimTrailingFrom(message)));
+                    continue;
+                }
+                VisitorsBridgeForTests.TestJavaFileScannerContext context = bridge.lastCreatedTestContext();
+                for (AnalyzerMessage message : context.getIssues()) {
+                    AnalyzerMessage.TextSpan span = message.primaryLocation();
+                    issues.add(new Issue(path, span != null ? span.startLine : 0, span != null ? span.startCharacter + 1 : 0,
+                            message.getCheck().getClass().getAnnotation(Rule.class).key(), message.getMessage()));
+                }
+            }
+            return issues;
+        }
+    }
+
+    /**
+     * the test bridge, keeping the parse error of the last scanned file
+     */
+    private static final class ParseErrorRecordingBridge extends VisitorsBridgeForTests {
+        private RecognitionException parseError;
+
+        private ParseErrorRecordingBridge(List<JavaCheck> checks, List<File> classpath) {
+            super(checks, classpath, null);
+        }
+
+        @Override
+        public void processRecognitionException(RecognitionException recognitionException, File file) {
+            parseError = recognitionException;
+            super.processRecognitionException(recognitionException, file);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * generator of jdbc heavy java source files used as benchmark input. the
+ * generated class is a data access object with the given number of methods,
+ * each method acquiring a connection, running queries and updates, reading
+ * the result set and closing the resources. every method has a few non jdbc
+ * method invocations too, so that the checks also pay for the invocations
+ * they are not interested in.
+ */
+public final class JdbcCorpus {
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private JdbcCorpus() {
+    }
+
+    /**
+     * generate the source of a data access object
+     *
+     * @param className   the simple name of the generated class
+     * @param methodCount the number of dao methods of the class
+     * @return the java source
+     */
+    public static String generate(String className, int methodCount) {
+        StringBuilder source = new StringBuilder(methodCount * 1024);
+        source.append("import java.sql.*;\n")
+                .append("import java.util.*;\n")
+                .append("import javax.sql.DataSource;\n\n")
+                .append("public class ").append(className).append(" {\n")
+                .append("    private final DataSource dataSource;\n\n")
+                .append("    public ").append(className).append("(DataSource dataSource) {\n")
+                .append("        this.dataSource = dataSource;\n")
+                .append("    }\n");
+        for (int index = 0; index < methodCount; index++) {
+            appendMethod(source, index);
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * generate the source of a data access object into a temporary file
+     *
+     * @param className   the simple name of the generated class
+     * @param methodCount the number of dao methods of the class
+     * @return the generated file, deleted on exit
+     * @throws IOException if the file can not be written
+     */
+    public static File write(String className, int methodCount) throws IOException {
+        File directory = Files.createTempDirectory("jdbc-corpus").toFile();
+        directory.deleteOnExit();
+        File file = new File(directory, className + ".java");
+        Files.write(file.toPath(), generate(className, methodCount).getBytes(UTF_8));
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void appendMethod(StringBuilder source, int index) {
+        source.append("\n")
+                .append("    public List<String> find").append(index).append("(List<Integer> ids) throws SQLException {\n")
+                .append("        List<String> names = new ArrayList<>();\n")
+                .append("        Connection connection = dataSource.getConnection();\n")
+                .append("        Statement statement = connection.createStatement();\n")
+                .append("        ResultSet resultSet = statement.executeQuery(\"select id, name from table_").append(index).append("\");\n")
+                .append("        while (resultSet.next()) {\n")
+                .append("            names.add(resultSet.getString(\"name\").trim());\n")
+                .append("        }\n")
+                .append("        PreparedStatement update = connection.prepareStatement(\"update table_").append(index).append(" set name = ? where id = ?\");\n")
+                .append("        for (Integer id : ids) {\n")
+                .append("            update.setString(1, String.valueOf(id));\n")
+                .append("            update.setInt(2, id);\n")
+                .append("            update.executeUpdate();\n")
+                .append("        }\n")
+                .append("        Collections.sort(names);\n")
+                .append("        resultSet.close();\n")
+                .append("        update.close();\n")
+                .append("        statement.close();\n")
+                .append("        connection.close();\n")
+                .append("        return names;\n")
+                .append("    }\n");
+    }
+}
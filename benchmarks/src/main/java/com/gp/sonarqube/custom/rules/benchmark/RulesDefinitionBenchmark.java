@@ -0,0 +1,38 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.gp.sonarqube.custom.rules.JavaRulesDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author GP
+ * <p>
+ * benchmark of the rules definition, run by the sonarqube server at every
+ * start. the average time covers the annotation loading of every rule and
+ * the read of the rule metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesDefinitionBenchmark {
+
+    @Benchmark
+    public RulesDefinition.Context define() {
+        RulesDefinition.Context context = new RulesDefinition.Context();
+        new JavaRulesDefinition().define(context);
+        return context;
+    }
+}
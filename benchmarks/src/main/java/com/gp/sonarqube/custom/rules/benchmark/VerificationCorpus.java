@@ -0,0 +1,165 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.google.common.io.Resources;
+import com.gp.sonarqube.custom.rules.RulesList;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * corpus of the verification gate, written to a directory. the corpus is
+ * made of two parts:
+ * <p>
+ * the fixture of every rule listed in RulesList.getJavaChecks(), read from
+ * the corpus/&lt;rule key&gt;.java resource. the resources are the files of
+ * src/test/files of the plugin, also verified by the unit tests of the
+ * rules. the lines expected to raise issues of the rule are marked with a
+ * "// Noncompliant" comment, the format of the JavaCheckVerifier of
+ * sonar-java: an optional line offset (@+1, @-2) and an optional number of
+ * issues may follow the marker;
+ * <p>
+ * data access objects generated by JdbcCorpus, from many small files up to a
+ * few very large ones, to measure the throughput of all the rules together.
+ */
+public final class VerificationCorpus {
+    private static final String FIXTURE_RESOURCE = "corpus/%s.java";
+    private static final Pattern NONCOMPLIANT_MARKER = Pattern.compile("//\\s*Noncompliant(?:@([+-]?\\d+))?(?:\\s+(\\d+))?");
+
+    /**
+     * the number of generated files, by number of dao methods per file
+     */
+    private static final Map<Integer, Integer> GENERATED_FILES = new LinkedHashMap<>();
+
+    static {
+        GENERATED_FILES.put(10, 200);
+        GENERATED_FILES.put(100, 20);
+        GENERATED_FILES.put(1000, 4);
+        GENERATED_FILES.put(5000, 1);
+    }
+
+    private final Path directory;
+    private final Map<String, Fixture> fixtures = new LinkedHashMap<>();
+    private final List<String> missingFixtures = new ArrayList<>();
+    private final List<File> files = new ArrayList<>();
+
+    private VerificationCorpus(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * the fixture of a rule, with the lines expected to raise an issue
+     */
+    public static final class Fixture {
+        private final String path;
+        private final Map<Integer, Integer> expectedIssues;
+
+        private Fixture(String path, Map<Integer, Integer> expectedIssues) {
+            this.path = path;
+            this.expectedIssues = expectedIssues;
+        }
+
+        /**
+         * @return the path of the fixture, relative to the corpus directory
+         */
+        public String path() {
+            return path;
+        }
+
+        /**
+         * @return the number of issues expected on the lines marked as
+         * noncompliant, by line
+         */
+        public Map<Integer, Integer> expectedIssues() {
+            return expectedIssues;
+        }
+    }
+
+    /**
+     * write the fixtures and the generated files to the directory
+     *
+     * @param directory the corpus directory
+     * @return the written corpus
+     * @throws IOException if a file can not be written
+     */
+    public static VerificationCorpus write(Path directory) throws IOException {
+        VerificationCorpus corpus = new VerificationCorpus(directory);
+        Path fixtureDirectory = Files.createDirectories(directory.resolve("fixtures"));
+        for (Class<? extends JavaCheck> checkClass : RulesList.getJavaChecks()) {
+            String ruleKey = checkClass.getAnnotation(Rule.class).key();
+            URL resource = VerificationCorpus.class.getClassLoader().getResource(String.format(FIXTURE_RESOURCE, ruleKey));
+            if (resource == null) {
+                corpus.missingFixtures.add(ruleKey);
+                continue;
+            }
+            List<String> lines = Resources.readLines(resource, UTF_8);
+            Path fixture = fixtureDirectory.resolve(ruleKey + ".java");
+            Files.write(fixture, lines, UTF_8);
+            Map<Integer, Integer> expectedIssues = new TreeMap<>();
+            for (int i = 0; i < lines.size(); i++) {
+                Matcher marker = NONCOMPLIANT_MARKER.matcher(lines.get(i));
+                if (marker.find()) {
+                    int line = i + 1 + (marker.group(1) != null ? Integer.parseInt(marker.group(1)) : 0);
+                    int count = marker.group(2) != null ? Integer.parseInt(marker.group(2)) : 1;
+                    expectedIssues.merge(line, count, Integer::sum);
+                }
+            }
+            corpus.fixtures.put(ruleKey, new Fixture(directory.relativize(fixture).toString(), expectedIssues));
+            corpus.files.add(fixture.toFile());
+        }
+        Path generatedDirectory = Files.createDirectories(directory.resolve("generated"));
+        for (Map.Entry<Integer, Integer> generated : GENERATED_FILES.entrySet()) {
+            for (int index = 0; index < generated.getValue(); index++) {
+                String className = "JdbcDao" + generated.getKey() + "x" + index;
+                Path file = generatedDirectory.resolve(className + ".java");
+                Files.write(file, JdbcCorpus.generate(className, generated.getKey()).getBytes(UTF_8));
+                corpus.files.add(file.toFile());
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * @return the corpus directory
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return the fixtures, by rule key
+     */
+    public Map<String, Fixture> fixtures() {
+        return Collections.unmodifiableMap(fixtures);
+    }
+
+    /**
+     * @return the keys of the rules without a fixture resource
+     */
+    public List<String> missingFixtures() {
+        return Collections.unmodifiableList(missingFixtures);
+    }
+
+    /**
+     * @return every file of the corpus, fixtures and generated files
+     */
+    public List<File> files() {
+        return Collections.unmodifiableList(files);
+    }
+}
@@ -0,0 +1,202 @@
+package com.gp.sonarqube.custom.rules.benchmark;
+
+import com.gp.sonarqube.custom.rules.RulesList;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * end to end gate of the rules, meant to run on every build of the plugin.
+ * the VerificationCorpus is analysed with all the rules of RulesList, through
+ * the HeadlessAnalyzer, and the gate fails (exit status 1) when:
+ * <p>
+ * a file of the corpus can not be parsed, a rule has no fixture, or a line of
+ * the fixture of a rule does not raise the number of issues of the rule its
+ * "// Noncompliant" marker expects (none for an unmarked line);
+ * <p>
+ * the relative cost of the rules grows more than the tolerance above the
+ * recorded baseline. the relative cost is the single thread time of the
+ * analysis of the whole corpus with all the rules, divided by the time of
+ * the analysis of the same corpus without any rule, measured in the same
+ * jvm, right after it. the median of three such pairs is kept. the parsing and semantic analysis of sonar-java is the unit of
+ * measure, so the baseline does not depend on the speed of the machine.
+ * <p>
+ * the baseline file is committed along with the module, and only written by
+ * a run with the system property sonar.jdbc.gate.record=true: a missing
+ * baseline fails the gate instead of being recorded, so that a build never
+ * compares the cost against itself. the tolerance is given by the system
+ * property sonar.jdbc.gate.tolerance, 0.2 (20%) by default.
+ * <p>
+ * the gate runs in the verify phase of the module (mvn verify), and can be
+ * run on its own with: java -cp target/benchmarks.jar
+ * com.gp.sonarqube.custom.rules.benchmark.VerificationGate [baseline file].
+ * the default baseline file is throughput-baseline.properties.
+ */
+public final class VerificationGate {
+    private static final String DEFAULT_BASELINE_FILE = "throughput-baseline.properties";
+    private static final String RELATIVE_COST = "relativeCost";
+    private static final boolean RECORD = Boolean.getBoolean("sonar.jdbc.gate.record");
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("sonar.jdbc.gate.tolerance", "0.2"));
+    private static final int MEASURED_RUNS = 3;
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private VerificationGate() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File baselineFile = new File(args.length > 0 ? args[0] : DEFAULT_BASELINE_FILE);
+        Path directory = Files.createTempDirectory("jdbc-verification");
+        List<String> failures = new ArrayList<>();
+        try {
+            VerificationCorpus corpus = VerificationCorpus.write(directory);
+            for (String ruleKey : corpus.missingFixtures()) {
+                failures.add("No fixture corpus/" + ruleKey + ".java for the rule " + ruleKey);
+            }
+            // the first run warms up the jvm, its issues are the ones verified
+            verify(corpus, analyse(corpus, RulesList.getJavaChecks()), failures);
+            analyse(corpus, Collections.<Class<? extends JavaCheck>>emptyList());
+            checkRelativeCost(baselineFile, medianRelativeCost(corpus), failures);
+        } finally {
+            delete(directory);
+        }
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static List<HeadlessAnalyzer.Issue> analyse(VerificationCorpus corpus, List<Class<? extends JavaCheck>> checkClasses)
+            throws InterruptedException {
+        return HeadlessAnalyzer.analyse(corpus.directory(), corpus.files(), Collections.<File>emptyList(), 1, checkClasses);
+    }
+
+    /**
+     * the analyses with and without the rules are run in pairs, so that both
+     * times of a pair are taken under the same load of the machine, and the
+     * median of the costs of the pairs is kept
+     *
+     * @return the median relative cost of the rules on the corpus
+     */
+    private static double medianRelativeCost(VerificationCorpus corpus) throws InterruptedException {
+        double[] relativeCosts = new double[MEASURED_RUNS];
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            analyse(corpus, RulesList.getJavaChecks());
+            long rulesNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            analyse(corpus, Collections.<Class<? extends JavaCheck>>emptyList());
+            long referenceNanos = System.nanoTime() - start;
+            relativeCosts[run] = (double) rulesNanos / referenceNanos;
+            System.out.printf("%d files analysed in %d ms with the rules, %d ms without, relative cost %.2f%n",
+                    corpus.files().size(), rulesNanos / 1_000_000, referenceNanos / 1_000_000, relativeCosts[run]);
+        }
+        Arrays.sort(relativeCosts);
+        double relativeCost = relativeCosts[MEASURED_RUNS / 2];
+        System.out.printf("Median relative cost %.2f%n", relativeCost);
+        return relativeCost;
+    }
+
+    /**
+     * compare the number of issues of every rule on each line of the fixture
+     * of the rule with the number of issues expected on the line
+     */
+    private static void verify(VerificationCorpus corpus, List<HeadlessAnalyzer.Issue> issues, List<String> failures) {
+        for (HeadlessAnalyzer.Issue issue : issues) {
+            if (HeadlessAnalyzer.PARSING_ERROR_KEY.equals(issue.ruleKey())) {
+                failures.add(issue.toString());
+            }
+        }
+        for (Map.Entry<String, VerificationCorpus.Fixture> fixture : corpus.fixtures().entrySet()) {
+            Map<Integer, Integer> actualIssues = new TreeMap<>();
+            for (HeadlessAnalyzer.Issue issue : issues) {
+                if (issue.ruleKey().equals(fixture.getKey()) && issue.path().equals(fixture.getValue().path())) {
+                    actualIssues.merge(issue.line(), 1, Integer::sum);
+                }
+            }
+            Map<Integer, Integer> expectedIssues = fixture.getValue().expectedIssues();
+            Set<Integer> lines = new TreeSet<>(expectedIssues.keySet());
+            lines.addAll(actualIssues.keySet());
+            for (Integer line : lines) {
+                int expected = expectedIssues.getOrDefault(line, 0);
+                int actual = actualIssues.getOrDefault(line, 0);
+                if (expected != actual) {
+                    failures.add(fixture.getKey() + ": " + actual + " issue(s) on the line " + line + ", " + expected + " expected");
+                }
+            }
+        }
+    }
+
+    /**
+     * compare the relative cost of the rules with the baseline, or record
+     * the baseline when asked to
+     */
+    private static void checkRelativeCost(File baselineFile, double relativeCost, List<String> failures) throws IOException {
+        if (RECORD) {
+            Properties baseline = new Properties();
+            baseline.setProperty(RELATIVE_COST, String.format(Locale.ROOT, "%.2f", relativeCost));
+            try (Writer writer = Files.newBufferedWriter(baselineFile.toPath(), UTF_8)) {
+                baseline.store(writer, "median single thread time of the analysis of the verification corpus with all the rules, relative to the time without any rule measured right after it");
+            }
+            System.out.println("Baseline recorded: " + baselineFile);
+            return;
+        }
+        if (!baselineFile.isFile()) {
+            failures.add("no throughput baseline " + baselineFile + ", run with -Dsonar.jdbc.gate.record=true to record it");
+            return;
+        }
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile.toPath(), UTF_8)) {
+            baseline.load(reader);
+        }
+        String recordedCost = baseline.getProperty(RELATIVE_COST);
+        if (recordedCost == null) {
+            failures.add("no " + RELATIVE_COST + " in the throughput baseline " + baselineFile + ", run with -Dsonar.jdbc.gate.record=true to record it");
+            return;
+        }
+        double baselineCost = Double.parseDouble(recordedCost);
+        double maximum = baselineCost * (1 + TOLERANCE);
+        System.out.printf("Baseline relative cost %.2f, maximum %.2f%n", baselineCost, maximum);
+        if (relativeCost > maximum) {
+            failures.add(String.format("relative cost %.2f above the baseline %.2f plus %.0f%%",
+                    relativeCost, baselineCost, TOLERANCE * 100));
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * @author GP
+ * <p>
+ * folds the compile time constant expressions used as sql text: literals,
+ * final variables initialized with a constant, and the concatenations of
+ * both. the fold works on the syntax tree of the analysed file only, hence
+ * the constants declared in another file are not folded.
+ */
+public final class ConstantFolder {
+    private static final int MAX_DEPTH = 16;
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private ConstantFolder() {
+    }
+
+    /**
+     * @param expression the expression to fold
+     * @return true if the expression is a compile time constant
+     */
+    public static boolean isConstant(@Nullable ExpressionTree expression) {
+        return stringValue(expression) != null;
+    }
+
+    /**
+     * fold the expression into its string value
+     *
+     * @param expression the expression to fold
+     * @return the string value, or null if the expression is not a compile
+     * time constant
+     */
+    @CheckForNull
+    public static String stringValue(@Nullable ExpressionTree expression) {
+        return fold(expression, 0);
+    }
+
+    @CheckForNull
+    private static String fold(@Nullable ExpressionTree expression, int depth) {
+        if (expression == null || depth > MAX_DEPTH) {
+            return null;
+        }
+        switch (expression.kind()) {
+            case STRING_LITERAL:
+                return unquote(((LiteralTree) expression).value());
+            case CHAR_LITERAL:
+                return unquote(((LiteralTree) expression).value());
+            case INT_LITERAL:
+            case LONG_LITERAL:
+            case BOOLEAN_LITERAL:
+                return ((LiteralTree) expression).value().replaceAll("[lL_]", "");
+            case PARENTHESIZED_EXPRESSION:
+                return fold(((ParenthesizedTree) expression).expression(), depth + 1);
+            case PLUS:
+                BinaryExpressionTree plus = (BinaryExpressionTree) expression;
+                String left = fold(plus.leftOperand(), depth + 1);
+                String right = left == null ? null : fold(plus.rightOperand(), depth + 1);
+                return right == null ? null : (left + right);
+            case IDENTIFIER:
+                return foldVariable(((IdentifierTree) expression).symbol(), depth);
+            case MEMBER_SELECT:
+                return foldVariable(((MemberSelectExpressionTree) expression).identifier().symbol(), depth);
+            default:
+                return null;
+        }
+    }
+
+    @CheckForNull
+    private static String foldVariable(Symbol symbol, int depth) {
+        if (!symbol.isVariableSymbol() || !symbol.isFinal()) {
+            return null;
+        }
+        Tree declaration = symbol.declaration();
+        if (declaration == null || !declaration.is(Tree.Kind.VARIABLE)) {
+            return null;
+        }
+        return fold(((VariableTree) declaration).initializer(), depth + 1);
+    }
+
+    /**
+     * remove the quotes of a string or char literal, and resolve the most
+     * common escape sequences
+     */
+    private static String unquote(String literal) {
+        String value = literal.substring(1, literal.length() - 1);
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character == '\\' && index + 1 < value.length()) {
+                index++;
+                character = value.charAt(index);
+                switch (character) {
+                    case 'n':
+                        character = '\n';
+                        break;
+                    case 't':
+                        character = '\t';
+                        break;
+                    case 'r':
+                        character = '\r';
+                        break;
+                    default:
+                        break;
+                }
+            }
+            unescaped.append(character);
+        }
+        return unescaped.toString();
+    }
+}
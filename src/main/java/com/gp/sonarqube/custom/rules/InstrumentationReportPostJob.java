@@ -0,0 +1,52 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.api.batch.postjob.PostJob;
+import org.sonar.api.batch.postjob.PostJobContext;
+import org.sonar.api.batch.postjob.PostJobDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * post job writing the summary report of the RuleInstrumentation at the end
+ * of the analysis. the job does nothing when the instrumentation is not
+ * enabled.
+ */
+public class InstrumentationReportPostJob implements PostJob {
+    private static final Logger LOGGER = Loggers.get(InstrumentationReportPostJob.class);
+
+    @Override
+    public void describe(PostJobDescriptor descriptor) {
+        descriptor.name("JDBC rules instrumentation report");
+    }
+
+    /**
+     * write the report to the file given by the analysis setting
+     * sonar.jdbc.instrumentation.reportPath, then drop the counters
+     *
+     * @param context the post job context
+     */
+    @Override
+    public void execute(PostJobContext context) {
+        if (!RuleInstrumentation.isEnabled()) {
+            return;
+        }
+        File reportFile = new File(context.config().get(RuleInstrumentation.REPORT_PATH_PROPERTY).orElse(RuleInstrumentation.DEFAULT_REPORT_PATH));
+        try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), UTF_8)) {
+            RuleInstrumentation.report(writer);
+            LOGGER.info("JDBC rules instrumentation report written to {}", reportFile.getAbsolutePath());
+        } catch (IOException ioException) {
+            LOGGER.warn("Failed to write the JDBC rules instrumentation report to " + reportFile.getAbsolutePath(), ioException);
+        } finally {
+            RuleInstrumentation.reset();
+        }
+    }
+}
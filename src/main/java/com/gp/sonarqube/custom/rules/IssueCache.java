@@ -0,0 +1,416 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * cache of the issues raised by the checks, keyed by the hash of the file
+ * content, the rule and its parameters, the fingerprint of the classpath of
+ * the analysis, and the version of the rule set: the version of the plugin,
+ * its checks, and the hash of its code. the rules rely on the semantic types
+ * of the file, which come from the bytecode of the classpath: a change of
+ * another file of the project, once compiled, or of a library changes the
+ * fingerprint, and the files are analysed again. a
+ * check analysing a file it has already analysed replays the cached issues
+ * instead of running its logic again. the issues are kept by position, and
+ * replayed on the trees found at the same position in the new ast.
+ * <p>
+ * the cache is enabled with the analysis setting sonar.jdbc.cache=true, read
+ * by the JdbcRulesSettings, and holds at most sonar.jdbc.cache.size entries
+ * (one per rule and file), the least recently used entry being evicted
+ * first. the entries live as long as the jvm (the ide for sonarlint), and are
+ * kept across analyses in the file given by sonar.jdbc.cache.path when set.
+ */
+public final class IssueCache {
+    /**
+     * analysis setting enabling the cache
+     */
+    public static final String ENABLED_PROPERTY = "sonar.jdbc.cache";
+    /**
+     * analysis setting giving the max number of entries of the cache
+     */
+    public static final String SIZE_PROPERTY = "sonar.jdbc.cache.size";
+    /**
+     * analysis setting giving the file the cache is loaded from and saved to
+     */
+    public static final String PATH_PROPERTY = "sonar.jdbc.cache.path";
+    /**
+     * default max number of entries of the cache
+     */
+    public static final int DEFAULT_SIZE = 10000;
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JAR_SUFFIX = ".jar";
+    private static final Type ENTRIES_TYPE = new TypeToken<Map<String, List<CachedIssue>>>() {
+    }.getType();
+
+    private static final Map<String, List<CachedIssue>> ENTRIES = new LinkedHashMap<String, List<CachedIssue>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<CachedIssue>> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private static volatile boolean enabled;
+    private static volatile int maxEntries = DEFAULT_SIZE;
+    private static volatile String classpathFingerprint = "";
+    @Nullable
+    private static File cacheFile;
+    private static boolean loaded;
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private IssueCache() {
+    }
+
+    /**
+     * holder of the rule set version, computed on the first key only, as it
+     * reads the plugin code
+     */
+    private static final class RuleSetVersion {
+        private static final String VALUE = ruleSetVersion();
+    }
+
+    /**
+     * the position of a tree, or of a token when the kind is TOKEN
+     */
+    public static final class Span {
+        public String kind;
+        public int line;
+        public int column;
+        public int endLine;
+        public int endColumn;
+        @Nullable
+        public String message;
+
+        @CheckForNull
+        public static Span of(Tree tree, @Nullable String message) {
+            SyntaxToken firstToken = tree.firstToken();
+            SyntaxToken lastToken = tree.lastToken();
+            if (firstToken == null || lastToken == null) {
+                return null;
+            }
+            Span span = new Span();
+            span.kind = tree.kind().name();
+            span.line = firstToken.line();
+            span.column = firstToken.column();
+            span.endLine = lastToken.line();
+            span.endColumn = lastToken.column() + lastToken.text().length();
+            span.message = message;
+            return span;
+        }
+
+        boolean isAt(Tree tree) {
+            Span span = of(tree, null);
+            return span != null && kind.equals(span.kind) && line == span.line && column == span.column
+                    && endLine == span.endLine && endColumn == span.endColumn;
+        }
+    }
+
+    /**
+     * an issue raised by a check: the primary location, the message, the
+     * secondary locations and the cost
+     */
+    public static final class CachedIssue {
+        public Span primary;
+        public String message;
+        public List<Span> secondaries = new ArrayList<>();
+        @Nullable
+        public Integer cost;
+    }
+
+    /**
+     * @return true if the checks should use the cache
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * configure the cache for the next analysis. the entries in memory are
+     * kept, and the file is loaded again if it changed.
+     *
+     * @param enabled    true to let the checks use the cache
+     * @param maxEntries the max number of entries of the cache
+     * @param file       the file the cache is loaded from and saved to, or
+     *                   null to keep the cache in memory only
+     * @param classpath  the binaries and libraries of the analysis, see
+     *                   classpathFingerprint
+     */
+    public static void configure(boolean enabled, int maxEntries, @Nullable File file, Collection<File> classpath) {
+        synchronized (ENTRIES) {
+            IssueCache.maxEntries = maxEntries;
+            IssueCache.classpathFingerprint = enabled ? classpathFingerprint(classpath) : "";
+            if (!Objects.equals(cacheFile, file)) {
+                cacheFile = file;
+                loaded = false;
+            }
+            IssueCache.enabled = enabled;
+        }
+    }
+
+    /**
+     * @return the file the cache is loaded from and saved to, or null
+     */
+    @CheckForNull
+    public static File file() {
+        synchronized (ENTRIES) {
+            return cacheFile;
+        }
+    }
+
+    /**
+     * the key of the issues of a rule on a file content
+     *
+     * @param ruleKey        the rule key
+     * @param ruleParameters the values of the rule parameters
+     * @param fileContent    the content of the file
+     * @return the cache key
+     */
+    public static String key(String ruleKey, String ruleParameters, String fileContent) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putString(RuleSetVersion.VALUE, UTF_8)
+                .putString(classpathFingerprint, UTF_8)
+                .putString(ruleKey, UTF_8)
+                .putString(ruleParameters, UTF_8)
+                .putString(fileContent, UTF_8);
+        return hasher.hash().toString();
+    }
+
+    /**
+     * the fingerprint of the classpath: the path, size and last modification
+     * time of every class file and jar of the classpath entries, the
+     * directories being walked. the content is not read, so that the
+     * fingerprint stays cheap on large classpaths.
+     *
+     * @param classpath the binary directories and library files
+     * @return the fingerprint of the classpath
+     */
+    static String classpathFingerprint(Collection<File> classpath) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (File entry : classpath) {
+            hasher.putString(entry.getPath(), UTF_8);
+            if (entry.isDirectory()) {
+                List<Path> files;
+                try (Stream<Path> paths = Files.walk(entry.toPath())) {
+                    files = paths.filter(path -> path.toString().endsWith(CLASS_SUFFIX) || path.toString().endsWith(JAR_SUFFIX))
+                            .sorted().collect(Collectors.toList());
+                } catch (IOException | UncheckedIOException exception) {
+                    // an entry which can not be walked changes the fingerprint on every analysis
+                    hasher.putLong(System.nanoTime());
+                    continue;
+                }
+                for (Path file : files) {
+                    hashFile(hasher, file.toFile());
+                }
+            } else {
+                hashFile(hasher, entry);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void hashFile(Hasher hasher, File file) {
+        hasher.putString(file.getPath(), UTF_8).putLong(file.length()).putLong(file.lastModified());
+    }
+
+    /**
+     * @param key the cache key
+     * @return the cached issues, or null if the key is not cached
+     */
+    @CheckForNull
+    public static List<CachedIssue> get(String key) {
+        synchronized (ENTRIES) {
+            loadOnce();
+            return ENTRIES.get(key);
+        }
+    }
+
+    /**
+     * @param key    the cache key
+     * @param issues the issues raised on the file
+     */
+    public static void put(String key, List<CachedIssue> issues) {
+        synchronized (ENTRIES) {
+            loadOnce();
+            ENTRIES.put(key, Collections.unmodifiableList(new ArrayList<>(issues)));
+        }
+    }
+
+    /**
+     * @param key the cache key to forget
+     */
+    public static void remove(String key) {
+        synchronized (ENTRIES) {
+            ENTRIES.remove(key);
+        }
+    }
+
+    /**
+     * find the trees of the new ast at the positions of the cached issues
+     *
+     * @param root   the ast of the file
+     * @param issues the cached issues
+     * @return the tree of every span of the issues, or null if one of the
+     * spans is not found
+     */
+    @CheckForNull
+    public static Map<Span, Tree> resolve(Tree root, List<CachedIssue> issues) {
+        List<Span> spans = new ArrayList<>();
+        for (CachedIssue issue : issues) {
+            spans.add(issue.primary);
+            spans.addAll(issue.secondaries);
+        }
+        Map<Span, Tree> trees = new HashMap<>();
+        new BaseTreeVisitor() {
+            @Override
+            protected void scan(@Nullable Tree tree) {
+                if (tree == null || trees.size() == spans.size()) {
+                    return;
+                }
+                for (Span span : spans) {
+                    if (!trees.containsKey(span)) {
+                        Tree candidate = Tree.Kind.TOKEN.name().equals(span.kind) ? tree.firstToken() : tree;
+                        if (candidate != null && span.isAt(candidate)) {
+                            trees.put(span, candidate);
+                        }
+                    }
+                }
+                super.scan(tree);
+            }
+        }.scan(root);
+        return trees.size() == spans.size() ? trees : null;
+    }
+
+    /**
+     * write the cache to the file given by sonar.jdbc.cache.path, if any
+     *
+     * @throws IOException if the file can not be written
+     */
+    public static void save() throws IOException {
+        synchronized (ENTRIES) {
+            File file = cacheFile;
+            if (file == null) {
+                return;
+            }
+            loadOnce();
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), UTF_8)) {
+                new Gson().toJson(new LinkedHashMap<>(ENTRIES), ENTRIES_TYPE, writer);
+            }
+        }
+    }
+
+    private static void loadOnce() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File file = cacheFile;
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+            Map<String, List<CachedIssue>> entries = new Gson().fromJson(reader, ENTRIES_TYPE);
+            if (entries != null) {
+                ENTRIES.putAll(entries);
+            }
+        } catch (IOException | RuntimeException exception) {
+            // a cache file which can not be read is ignored, the files are analysed again
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * the rule set version changes with the version of the plugin, the list
+     * of its checks, and the code of the plugin, so that a new build with the
+     * same version does not replay the issues of the previous one
+     */
+    private static String ruleSetVersion() {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putString(Objects.toString(IssueCache.class.getPackage().getImplementationVersion(), ""), UTF_8);
+        for (Class<?> check : RulesList.getChecks()) {
+            hasher.putString(check.getName(), UTF_8);
+        }
+        try {
+            hashPluginCode(hasher);
+        } catch (IOException | URISyntaxException | RuntimeException exception) {
+            // without the plugin code, the bytecode of the checks is hashed
+            for (Class<?> check : RulesList.getChecks()) {
+                hashClass(hasher, check);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * hash the plugin jar, or the class files of the plugin when it is run
+     * from a class directory
+     */
+    private static void hashPluginCode(Hasher hasher) throws IOException, URISyntaxException {
+        CodeSource codeSource = IssueCache.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            throw new IllegalStateException("No code source for the plugin classes");
+        }
+        Path location = Paths.get(codeSource.getLocation().toURI());
+        if (Files.isRegularFile(location)) {
+            hasher.putBytes(Files.readAllBytes(location));
+            return;
+        }
+        List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(location)) {
+            classFiles = paths.filter(path -> path.toString().endsWith(CLASS_SUFFIX)).sorted().collect(Collectors.toList());
+        }
+        for (Path classFile : classFiles) {
+            hasher.putString(location.relativize(classFile).toString(), UTF_8).putBytes(Files.readAllBytes(classFile));
+        }
+    }
+
+    private static void hashClass(Hasher hasher, Class<?> type) {
+        try (InputStream bytecode = type.getResourceAsStream(type.getSimpleName() + CLASS_SUFFIX)) {
+            if (bytecode == null) {
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = bytecode.read(buffer)) != -1) {
+                hasher.putBytes(buffer, 0, read);
+            }
+        } catch (IOException ioException) {
+            // the class name alone is part of the version
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.api.batch.postjob.PostJob;
+import org.sonar.api.batch.postjob.PostJobContext;
+import org.sonar.api.batch.postjob.PostJobDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import java.io.IOException;
+
+/**
+ * @author GP
+ * <p>
+ * post job saving the IssueCache at the end of the analysis, so that the
+ * next analysis replays the issues of the unchanged files. the job does
+ * nothing when the cache is not enabled.
+ */
+public class IssueCachePostJob implements PostJob {
+    private static final Logger LOGGER = Loggers.get(IssueCachePostJob.class);
+
+    @Override
+    public void describe(PostJobDescriptor descriptor) {
+        descriptor.name("JDBC rules issue cache");
+    }
+
+    /**
+     * save the cache to the file given by the analysis setting
+     * sonar.jdbc.cache.path
+     *
+     * @param context the post job context
+     */
+    @Override
+    public void execute(PostJobContext context) {
+        if (!IssueCache.isEnabled()) {
+            return;
+        }
+        try {
+            IssueCache.save();
+        } catch (IOException ioException) {
+            LOGGER.warn("Failed to save the JDBC rules issue cache to " + IssueCache.file(), ioException);
+        }
+    }
+}
@@ -15,8 +15,10 @@ import org.sonar.squidbridge.annotations.RuleTemplate;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -25,10 +27,13 @@ public class JavaRulesDefinition implements RulesDefinition {
     public static final String REPOSITORY_KEY = "custom-java-jdbc-rules";
     private final Gson gson = new Gson();
 
+    private Map<String, RuleMetadataIndex.Entry> metadataIndex = Collections.emptyMap();
+
     @Override
     public void define(Context context) {
         NewRepository repository = context.createRepository(REPOSITORY_KEY, "java").setName("Custom Java Repository");
         List<Class> checks = RulesList.getChecks();
+        metadataIndex = RuleMetadataIndex.load(gson, JavaRulesDefinition.class.getResource(RESOURCE_BASE_PATH + "/" + RuleMetadataIndex.FILE_NAME));
         new RulesDefinitionAnnotationLoader().load(repository, Iterables.toArray(checks, Class.class));
         for (Class ruleClass : checks) {
             newRule(ruleClass, repository);
@@ -64,24 +69,35 @@ public class JavaRulesDefinition implements RulesDefinition {
             metadataKey = rspecKeyAnnotation.value();
             rule.setInternalKey(metadataKey);
         }
-        addHtmlDescription(rule, metadataKey);
-        addMetadata(rule, metadataKey);
+        RuleMetadataIndex.Entry indexEntry = metadataIndex.get(metadataKey);
+        if (indexEntry != null) {
+            if (indexEntry.description != null) {
+                rule.setHtmlDescription(indexEntry.description);
+            }
+            applyMetadata(rule, indexEntry.metadata);
+        } else {
+            addHtmlDescription(rule, metadataKey);
+            addMetadata(rule, metadataKey);
+        }
         return metadataKey;
     }
 
     private void addMetadata(NewRule rule, String metadataKey) {
         URL resource = JavaRulesDefinition.class.getResource(RESOURCE_BASE_PATH + "/" + metadataKey + "_java.json");
         if (resource != null) {
-            RuleMetadata metadata = gson.fromJson(readResource(resource), RuleMetadata.class);
-            rule.setSeverity(metadata.defaultSeverity.toUpperCase(Locale.US));
-            rule.setName(metadata.title);
-            rule.addTags(metadata.tags);
-            rule.setType(RuleType.valueOf(metadata.type));
-            rule.setStatus(RuleStatus.valueOf(metadata.status.toUpperCase(Locale.US)));
-            if (metadata.remediation != null) {
-                rule.setDebtRemediationFunction(metadata.remediation.remediationFunction(rule.debtRemediationFunctions()));
-                rule.setGapDescription(metadata.remediation.linearDesc);
-            }
+            applyMetadata(rule, gson.fromJson(readResource(resource), RuleMetadata.class));
+        }
+    }
+
+    private static void applyMetadata(NewRule rule, RuleMetadata metadata) {
+        rule.setSeverity(metadata.defaultSeverity.toUpperCase(Locale.US));
+        rule.setName(metadata.title);
+        rule.addTags(metadata.tags);
+        rule.setType(RuleType.valueOf(metadata.type));
+        rule.setStatus(RuleStatus.valueOf(metadata.status.toUpperCase(Locale.US)));
+        if (metadata.remediation != null) {
+            rule.setDebtRemediationFunction(metadata.remediation.remediationFunction(rule.debtRemediationFunctions()));
+            rule.setGapDescription(metadata.remediation.linearDesc);
         }
     }
 
@@ -12,8 +12,9 @@ import org.sonar.api.Plugin;
 public class JavaRulesPlugin implements Plugin {
 
     /**
-     * adds the custom rules definition class and the custom check registrar
-     * class. to know more details, go to the specific classes.
+     * adds the custom rules definition class, the custom check registrar
+     * class, the settings of the plugin, the instrumentation report and the
+     * issue cache. to know more details, go to the specific classes.
      *
      * @param context Sonarqube API Plugin Context
      */
@@ -21,5 +22,8 @@ public class JavaRulesPlugin implements Plugin {
     public void define(Context context) {
         context.addExtension(JavaRulesDefinition.class);
         context.addExtension(JavaCheckRegistrar.class);
+        context.addExtension(JdbcRulesSettings.class);
+        context.addExtension(InstrumentationReportPostJob.class);
+        context.addExtension(IssueCachePostJob.class);
     }
 }
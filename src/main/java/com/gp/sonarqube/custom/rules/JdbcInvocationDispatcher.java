@@ -0,0 +1,136 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * @author GP
+ * <p>
+ * dispatcher shared by all the jdbc checks of the plugin. sonar-java walks
+ * the tree once and calls every subscribed check for each method invocation,
+ * so the dispatcher makes sure the invocation is looked at only once: the
+ * method name is read from the syntax tree, and the method symbol is resolved
+ * lazily, the first time a check finds the name in its method table. every
+ * other check visiting the same invocation reuses the cached result.
+ * <p>
+ * the analysis of a module runs on a single thread, hence one dispatcher is
+ * kept per thread. the checks clear the dispatcher once they have scanned a
+ * file, so that the thread does not keep the syntax tree of the last file.
+ */
+public final class JdbcInvocationDispatcher {
+    private static final ThreadLocal<JdbcInvocationDispatcher> DISPATCHER = ThreadLocal.withInitial(JdbcInvocationDispatcher::new);
+
+    private final Invocation invocation = new Invocation();
+
+    private JdbcInvocationDispatcher() {
+    }
+
+    /**
+     * get the resolved view of the method invocation. the returned instance is
+     * reused for the next invocation and must not be kept by the caller.
+     *
+     * @param tree the method invocation tree
+     * @return the resolved invocation
+     */
+    public static Invocation dispatch(MethodInvocationTree tree) {
+        Invocation current = DISPATCHER.get().invocation;
+        if (current.tree != tree) {
+            current.reset(tree);
+        }
+        return current;
+    }
+
+    /**
+     * forget the last dispatched invocation of the thread
+     */
+    public static void clear() {
+        DISPATCHER.get().invocation.clear();
+    }
+
+    /**
+     * read the name of the invoked method from the syntax tree
+     *
+     * @param tree the method invocation tree
+     * @return the method name
+     */
+    public static String methodName(MethodInvocationTree tree) {
+        ExpressionTree methodSelect = tree.methodSelect();
+        if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+            return ((MemberSelectExpressionTree) methodSelect).identifier().name();
+        }
+        return ((IdentifierTree) methodSelect).name();
+    }
+
+    /**
+     * @param symbol the symbol of a method invocation
+     * @return the method symbol, or null if the symbol is not resolved
+     */
+    @CheckForNull
+    static Symbol.MethodSymbol methodSymbol(@Nullable Symbol symbol) {
+        if (symbol == null || symbol.isUnknown() || !symbol.isMethodSymbol()) {
+            return null;
+        }
+        return (Symbol.MethodSymbol) symbol;
+    }
+
+    /**
+     * method invocation as seen by the checks: the name is always available,
+     * the symbol is resolved on first access.
+     */
+    public static final class Invocation {
+        private MethodInvocationTree tree;
+        private String methodName;
+        private Symbol.MethodSymbol methodSymbol;
+        private boolean resolved;
+
+        private Invocation() {
+        }
+
+        private void clear() {
+            tree = null;
+            methodName = null;
+            methodSymbol = null;
+            resolved = false;
+        }
+
+        private void reset(MethodInvocationTree newTree) {
+            tree = newTree;
+            methodName = JdbcInvocationDispatcher.methodName(newTree);
+            methodSymbol = null;
+            resolved = false;
+        }
+
+        /**
+         * @return the method invocation tree
+         */
+        public MethodInvocationTree tree() {
+            return tree;
+        }
+
+        /**
+         * @return the name of the invoked method
+         */
+        public String methodName() {
+            return methodName;
+        }
+
+        /**
+         * @return the method symbol, or null if the symbol can not be resolved
+         */
+        @CheckForNull
+        public Symbol.MethodSymbol methodSymbol() {
+            if (!resolved) {
+                methodSymbol = JdbcInvocationDispatcher.methodSymbol(tree.symbol());
+                resolved = true;
+            }
+            return methodSymbol;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author GP
+ * <p>
+ * immutable table of the method signatures a jdbc check is interested in.
+ * the table is indexed by the method name so that a method invocation whose
+ * name is not part of the table is rejected with a single hash lookup, before
+ * the symbol of the invocation is resolved.
+ */
+public final class JdbcMethodTable {
+    /**
+     * parameter count value to accept a method with any number of parameters
+     */
+    public static final int ANY_PARAMETERS = -1;
+
+    private final Map<String, List<Entry>> entriesByName;
+
+    private JdbcMethodTable(Map<String, List<Entry>> entriesByName) {
+        this.entriesByName = entriesByName;
+    }
+
+    /**
+     * create a new builder to define the method signatures of the table
+     *
+     * @return the table builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * cheap check done on the method name only, without any type resolution
+     *
+     * @param methodName the name of the invoked method
+     * @return true if at least one signature of the table has the same name
+     */
+    public boolean containsName(String methodName) {
+        return entriesByName.containsKey(methodName);
+    }
+
+    /**
+     * @return the method names present in the table
+     */
+    public Set<String> names() {
+        return entriesByName.keySet();
+    }
+
+    /**
+     * create a table with the signatures of this table, plus the signatures
+     * of the additional owner types and method names. every additional owner
+     * type (and its subtypes) gets all the method names of the table, and
+     * every additional method name is added to all the owner types of the
+     * table, with any number of parameters.
+     *
+     * @param additionalOwnerTypes  the fully qualified names of the owner
+     *                              types to add
+     * @param additionalMethodNames the method names to add
+     * @return the extended table, or this table if there is nothing to add
+     */
+    public JdbcMethodTable extend(Collection<String> additionalOwnerTypes, Collection<String> additionalMethodNames) {
+        if (additionalOwnerTypes.isEmpty() && additionalMethodNames.isEmpty()) {
+            return this;
+        }
+        Builder builder = new Builder();
+        Set<String> ownerTypes = new LinkedHashSet<>();
+        entriesByName.forEach((name, entries) -> {
+            for (Entry entry : entries) {
+                builder.add(entry.ownerType, name, entry.parameterCount, entry.includeSubtypes);
+                ownerTypes.add(entry.ownerType);
+            }
+        });
+        Set<String> methodNames = new LinkedHashSet<>(entriesByName.keySet());
+        methodNames.addAll(additionalMethodNames);
+        for (String ownerType : additionalOwnerTypes) {
+            for (String methodName : methodNames) {
+                builder.addSubtypes(ownerType, methodName, ANY_PARAMETERS);
+            }
+        }
+        for (String methodName : additionalMethodNames) {
+            for (String ownerType : ownerTypes) {
+                builder.addSubtypes(ownerType, methodName, ANY_PARAMETERS);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * check if the resolved invocation matches one of the signatures of the
+     * table. the owner type of the method symbol is resolved only when the
+     * method name is part of the table.
+     *
+     * @param invocation the invocation resolved by the dispatcher
+     * @return true if the invocation matches a signature of the table
+     */
+    public boolean matches(JdbcInvocationDispatcher.Invocation invocation) {
+        List<Entry> entries = entriesByName.get(invocation.methodName());
+        return entries != null && matches(entries, invocation.methodSymbol());
+    }
+
+    /**
+     * check if the method invocation matches one of the signatures of the
+     * table, without going through the dispatcher. meant for the helpers
+     * looking at other invocations than the one being dispatched.
+     *
+     * @param tree any method invocation
+     * @return true if the invocation matches a signature of the table
+     */
+    public boolean matches(MethodInvocationTree tree) {
+        List<Entry> entries = entriesByName.get(JdbcInvocationDispatcher.methodName(tree));
+        return entries != null && matches(entries, JdbcInvocationDispatcher.methodSymbol(tree.symbol()));
+    }
+
+    private static boolean matches(List<Entry> entries, @Nullable Symbol.MethodSymbol symbol) {
+        if (symbol == null) {
+            return false;
+        }
+        Type ownerType = symbol.owner().type();
+        int parameterCount = symbol.parameterTypes().size();
+        for (Entry entry : entries) {
+            if (entry.matches(ownerType, parameterCount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * single method signature of the table
+     */
+    private static final class Entry {
+        private final String ownerType;
+        private final boolean includeSubtypes;
+        private final int parameterCount;
+
+        private Entry(String ownerType, boolean includeSubtypes, int parameterCount) {
+            this.ownerType = ownerType;
+            this.includeSubtypes = includeSubtypes;
+            this.parameterCount = parameterCount;
+        }
+
+        private boolean matches(Type type, int count) {
+            if (parameterCount != ANY_PARAMETERS && parameterCount != count) {
+                return false;
+            }
+            return includeSubtypes ? type.isSubtypeOf(ownerType) : type.is(ownerType);
+        }
+    }
+
+    /**
+     * builder of the method table
+     */
+    public static final class Builder {
+        private final Map<String, List<Entry>> entriesByName = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * add a method declared by exactly the given owner type. this is the
+         * equivalent of MethodMatcher.create().typeDefinition(ownerType)
+         *
+         * @param ownerType      the fully qualified name of the owner type
+         * @param methodName     the method name
+         * @param parameterCount the number of parameters or ANY_PARAMETERS
+         * @return the builder
+         */
+        public Builder add(String ownerType, String methodName, int parameterCount) {
+            return add(ownerType, methodName, parameterCount, false);
+        }
+
+        /**
+         * add a method declared by the given owner type or any of its subtypes
+         *
+         * @param ownerType      the fully qualified name of the owner type
+         * @param methodName     the method name
+         * @param parameterCount the number of parameters or ANY_PARAMETERS
+         * @return the builder
+         */
+        public Builder addSubtypes(String ownerType, String methodName, int parameterCount) {
+            return add(ownerType, methodName, parameterCount, true);
+        }
+
+        private Builder add(String ownerType, String methodName, int parameterCount, boolean includeSubtypes) {
+            entriesByName.computeIfAbsent(methodName, name -> new ArrayList<>())
+                    .add(new Entry(ownerType, includeSubtypes, parameterCount));
+            return this;
+        }
+
+        /**
+         * @return the immutable method table
+         */
+        public JdbcMethodTable build() {
+            Map<String, List<Entry>> entries = new HashMap<>();
+            entriesByName.forEach((name, list) -> entries.put(name, Collections.unmodifiableList(new ArrayList<>(list))));
+            return new JdbcMethodTable(Collections.unmodifiableMap(entries));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonarsource.api.sonarlint.SonarLintSide;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author GP
+ * <p>
+ * scanner side component reading the settings of the plugin from the
+ * analysis configuration: sonar-project.properties, the -D options of the
+ * scanner, or the project settings of the server. the component is started
+ * with the project container, before any check runs, and hands the settings
+ * over to the RuleInstrumentation and the IssueCache.
+ */
+@ScannerSide
+@SonarLintSide
+public class JdbcRulesSettings implements Startable {
+    private static final String BINARIES_PROPERTY = "sonar.java.binaries";
+    private static final String LIBRARIES_PROPERTY = "sonar.java.libraries";
+    private static final String BASE_DIRECTORY_PROPERTY = "sonar.projectBaseDir";
+
+    private final Configuration configuration;
+
+    public JdbcRulesSettings(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * enable the instrumentation when sonar.jdbc.instrumentation is true,
+     * and the cache when sonar.jdbc.cache is true. the counters left by a
+     * previous analysis run by the same jvm are dropped, so that the report
+     * covers this analysis only.
+     */
+    @Override
+    public void start() {
+        RuleInstrumentation.reset();
+        RuleInstrumentation.setEnabled(configuration.getBoolean(RuleInstrumentation.ENABLED_PROPERTY).orElse(false));
+        IssueCache.configure(configuration.getBoolean(IssueCache.ENABLED_PROPERTY).orElse(false),
+                configuration.getInt(IssueCache.SIZE_PROPERTY).orElse(IssueCache.DEFAULT_SIZE),
+                configuration.get(IssueCache.PATH_PROPERTY).map(File::new).orElse(null),
+                classpath());
+    }
+
+    /**
+     * the binaries and libraries of the analysis, as given to sonar-java.
+     * the relative paths are resolved against the project base directory,
+     * and a wildcard entry (lib/*.jar, lib/**) stands for the directory
+     * before its first wildcard.
+     */
+    private List<File> classpath() {
+        File baseDirectory = new File(configuration.get(BASE_DIRECTORY_PROPERTY).orElse("."));
+        List<File> classpath = new ArrayList<>();
+        for (String property : new String[]{BINARIES_PROPERTY, LIBRARIES_PROPERTY}) {
+            for (String entry : configuration.getStringArray(property)) {
+                int wildcard = entry.indexOf('*');
+                String path = wildcard < 0 ? entry : entry.substring(0, wildcard);
+                File file = new File(path.isEmpty() ? "." : path);
+                classpath.add(file.isAbsolute() ? file : new File(baseDirectory, file.getPath()));
+            }
+        }
+        return classpath;
+    }
+
+    /**
+     * disable the instrumentation, so that the next analysis run by the same
+     * jvm reads its own settings. the cache entries are kept in memory for
+     * the next analysis.
+     */
+    @Override
+    public void stop() {
+        RuleInstrumentation.setEnabled(false);
+    }
+}
@@ -0,0 +1,277 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author GP
+ * <p>
+ * keeps track of the loops enclosing the node currently visited by a check.
+ * the check calls enter and leave while the tree is walked, and asks for the
+ * enclosing loop of the nodes it is interested in. only the parts of a loop
+ * executed once per iteration count as being inside the loop: the
+ * initializer of a for statement and the iterated expression of a for each
+ * statement are not. lambdas and anonymous classes passed to per element
+ * methods such as Iterable#forEach or Stream#map are handled as loops too, as
+ * well as the per row callbacks of spring jdbc (RowMapper and
+ * RowCallbackHandler). a per element method only counts when it is invoked
+ * on an iterable, a stream, a map, an iterator or a spliterator, so that
+ * Optional#map or CompletableFuture chains are not taken for loops.
+ */
+public final class LoopContext {
+    /**
+     * the methods calling their lambda argument once per element
+     */
+    public static final Set<String> PER_ELEMENT_METHODS = ImmutableSet.of(
+            "forEach", "forEachOrdered", "forEachRemaining", "map", "flatMap", "filter", "peek",
+            "mapToObj", "mapToInt", "mapToLong", "mapToDouble", "removeIf", "replaceAll");
+
+    /**
+     * the receiver types of the per element methods
+     */
+    public static final Set<String> ITERATION_TYPES = ImmutableSet.of(
+            "java.lang.Iterable", "java.util.stream.BaseStream", "java.util.Map", "java.util.Iterator", "java.util.Spliterator");
+
+    /**
+     * the callback types called once per row of a query
+     */
+    public static final Set<String> PER_ROW_CALLBACK_TYPES = ImmutableSet.of(
+            "org.springframework.jdbc.core.RowMapper", "org.springframework.jdbc.core.RowCallbackHandler");
+
+    /**
+     * the tree kinds the check has to subscribe to, on top of the method
+     * invocations, so that the loops are tracked
+     */
+    public static final List<Tree.Kind> LOOP_KINDS = ImmutableList.of(
+            Tree.Kind.FOR_STATEMENT, Tree.Kind.FOR_EACH_STATEMENT, Tree.Kind.WHILE_STATEMENT,
+            Tree.Kind.DO_STATEMENT, Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.NEW_CLASS);
+
+    private final Deque<Loop> loops = new ArrayDeque<>();
+    private final Set<Tree> perElementCallbacks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * register the lambdas and anonymous classes passed to a per element
+     * method, so that they are handled as loops when they are entered
+     *
+     * @param methodInvocationTree any method invocation
+     */
+    public void visitInvocation(MethodInvocationTree methodInvocationTree) {
+        if (!isPerElementInvocation(methodInvocationTree)) {
+            return;
+        }
+        for (ExpressionTree argument : methodInvocationTree.arguments()) {
+            if (argument.is(Tree.Kind.LAMBDA_EXPRESSION) || isAnonymousClass(argument)) {
+                perElementCallbacks.add(argument);
+            }
+        }
+    }
+
+    /**
+     * check if the invocation calls its callback arguments once per element:
+     * one of the PER_ELEMENT_METHODS invoked on one of the ITERATION_TYPES
+     *
+     * @param methodInvocationTree any method invocation
+     * @return true if the invocation iterates over elements
+     */
+    public static boolean isPerElementInvocation(MethodInvocationTree methodInvocationTree) {
+        if (!PER_ELEMENT_METHODS.contains(JdbcInvocationDispatcher.methodName(methodInvocationTree))) {
+            return false;
+        }
+        Type receiverType = receiverType(methodInvocationTree);
+        if (receiverType == null) {
+            return false;
+        }
+        for (String iterationType : ITERATION_TYPES) {
+            if (receiverType.isSubtypeOf(iterationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the type of the expression the method is invoked on, or the
+     * type declaring the method for an unqualified invocation
+     */
+    @CheckForNull
+    private static Type receiverType(MethodInvocationTree methodInvocationTree) {
+        if (methodInvocationTree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+            return ((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression().symbolType();
+        }
+        Symbol owner = methodInvocationTree.symbol().owner();
+        return owner != null ? owner.type() : null;
+    }
+
+    /**
+     * enter a node of one of the LOOP_KINDS
+     *
+     * @param tree the loop tree
+     */
+    public void enter(Tree tree) {
+        List<Tree> regions = perIterationRegions(tree);
+        if (!regions.isEmpty()) {
+            loops.push(new Loop(tree, regions));
+        }
+    }
+
+    /**
+     * leave a node of one of the LOOP_KINDS
+     *
+     * @param tree the loop tree
+     */
+    public void leave(Tree tree) {
+        if (!loops.isEmpty() && loops.peek().tree == tree) {
+            loops.pop();
+        }
+    }
+
+    /**
+     * @return true if no loop is entered at the visited node
+     */
+    public boolean isEmpty() {
+        return loops.isEmpty();
+    }
+
+    /**
+     * find the innermost loop executing the given tree once per iteration
+     *
+     * @param tree the tree being visited
+     * @return the loop tree, or null if the tree is not executed per iteration
+     */
+    @CheckForNull
+    public Tree enclosingLoop(Tree tree) {
+        for (Loop loop : loops) {
+            if (loop.contains(tree)) {
+                return loop.tree;
+            }
+        }
+        return null;
+    }
+
+    private List<Tree> perIterationRegions(Tree tree) {
+        List<Tree> regions = new ArrayList<>();
+        switch (tree.kind()) {
+            case FOR_STATEMENT:
+                ForStatementTree forStatement = (ForStatementTree) tree;
+                addRegion(regions, forStatement.condition());
+                regions.addAll(forStatement.update());
+                addRegion(regions, forStatement.statement());
+                break;
+            case FOR_EACH_STATEMENT:
+                addRegion(regions, ((ForEachStatement) tree).statement());
+                break;
+            case WHILE_STATEMENT:
+                WhileStatementTree whileStatement = (WhileStatementTree) tree;
+                addRegion(regions, whileStatement.condition());
+                addRegion(regions, whileStatement.statement());
+                break;
+            case DO_STATEMENT:
+                DoWhileStatementTree doWhileStatement = (DoWhileStatementTree) tree;
+                addRegion(regions, doWhileStatement.statement());
+                addRegion(regions, doWhileStatement.condition());
+                break;
+            case LAMBDA_EXPRESSION:
+                if (perElementCallbacks.remove(tree) || isPerRowCallback((LambdaExpressionTree) tree)) {
+                    addRegion(regions, ((LambdaExpressionTree) tree).body());
+                }
+                break;
+            case NEW_CLASS:
+                if (isAnonymousClass(tree) && (perElementCallbacks.remove(tree) || isPerRowCallback((NewClassTree) tree))) {
+                    addRegion(regions, ((NewClassTree) tree).classBody());
+                }
+                break;
+            default:
+                break;
+        }
+        return regions;
+    }
+
+    private static boolean isAnonymousClass(Tree tree) {
+        return tree.is(Tree.Kind.NEW_CLASS) && ((NewClassTree) tree).classBody() != null;
+    }
+
+    private static boolean isPerRowCallback(ExpressionTree callback) {
+        for (String callbackType : PER_ROW_CALLBACK_TYPES) {
+            if (callback.symbolType().isSubtypeOf(callbackType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addRegion(List<Tree> regions, @Nullable Tree region) {
+        if (region != null) {
+            regions.add(region);
+        }
+    }
+
+    /**
+     * check if a tree is lexically inside another tree, based on the position
+     * of their first and last tokens
+     *
+     * @param outer the enclosing tree
+     * @param inner the tree to look for
+     * @return true if the inner tree is inside (or is) the outer tree
+     */
+    public static boolean contains(Tree outer, Tree inner) {
+        SyntaxToken first = inner.firstToken();
+        SyntaxToken last = inner.lastToken();
+        SyntaxToken outerFirst = outer.firstToken();
+        SyntaxToken outerLast = outer.lastToken();
+        return first != null && last != null && outerFirst != null && outerLast != null
+                && isBeforeOrAt(outerFirst, first) && isBeforeOrAt(last, outerLast);
+    }
+
+    /**
+     * check if the token is positioned before (or at) the other token
+     */
+    private static boolean isBeforeOrAt(SyntaxToken token, SyntaxToken other) {
+        return token.line() < other.line() || (token.line() == other.line() && token.column() <= other.column());
+    }
+
+    /**
+     * loop entered by the visit, with the parts of the loop executed per
+     * iteration
+     */
+    private static final class Loop {
+        private final Tree tree;
+        private final List<Tree> regions;
+
+        private Loop(Tree tree, List<Tree> regions) {
+            this.tree = tree;
+            this.regions = regions;
+        }
+
+        private boolean contains(Tree tree) {
+            for (Tree region : regions) {
+                if (LoopContext.contains(region, tree)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
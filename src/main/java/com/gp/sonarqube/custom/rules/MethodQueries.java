@@ -0,0 +1,401 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeCastTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author GP
+ * <p>
+ * the queries of a method body, as seen by the checks following a query
+ * from its sql text to the rows read from its ResultSet: the constant sql
+ * texts given to prepareStatement and executeQuery, the statement and
+ * ResultSet variables they are stored in, the method invocations done on
+ * every variable, and the loops iterating over the rows of a ResultSet.
+ * <p>
+ * a variable assigned more than once is not bound to any query. the classes
+ * declared in the method body are not part of the method.
+ */
+public final class MethodQueries {
+    private static final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private static final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private static final String PREPARE_STATEMENT_METHOD = "prepareStatement";
+    private static final String PREPARE_CALL_METHOD = "prepareCall";
+    private static final String CREATE_STATEMENT_METHOD = "createStatement";
+    private static final String EXECUTE_QUERY_METHOD = "executeQuery";
+    private static final String NEXT_METHOD = "next";
+
+    private static final JdbcMethodTable QUERY_METHODS = JdbcMethodTable.builder()
+            .addSubtypes(CONNECTION_CLASS, PREPARE_STATEMENT_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, PREPARE_CALL_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, CREATE_STATEMENT_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_QUERY_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Map<ExpressionTree, SqlText> constantSql = new LinkedHashMap<>();
+    private final List<Execution> executions = new ArrayList<>();
+    private final Map<Symbol, Execution> resultSets = new LinkedHashMap<>();
+    private final Map<Symbol, List<MethodInvocationTree>> calls = new HashMap<>();
+    private final Set<IdentifierTree> receivers = new HashSet<>();
+    private final Set<IdentifierTree> assigned = new HashSet<>();
+    private final List<RowLoop> rowLoops = new ArrayList<>();
+
+    private MethodQueries() {
+    }
+
+    /**
+     * an executeQuery invocation, with the statement and the sql text it
+     * runs when they are known
+     */
+    public static final class Execution {
+        private final MethodInvocationTree invocation;
+        private ExpressionTree sqlArgument;
+        private Symbol statement;
+        private Symbol connection;
+
+        private Execution(MethodInvocationTree invocation) {
+            this.invocation = invocation;
+        }
+
+        /**
+         * @return the executeQuery invocation
+         */
+        public MethodInvocationTree invocation() {
+            return invocation;
+        }
+
+        /**
+         * @return the sql text argument of executeQuery, or of the
+         * prepareStatement call creating the statement, or null if unknown
+         */
+        @CheckForNull
+        public ExpressionTree sqlArgument() {
+            return sqlArgument;
+        }
+
+        /**
+         * @return the statement variable executeQuery is invoked on, or null
+         * if the statement is not a variable
+         */
+        @CheckForNull
+        public Symbol statement() {
+            return statement;
+        }
+
+        /**
+         * @return the connection variable the statement was created from, or
+         * null if unknown
+         */
+        @CheckForNull
+        public Symbol connection() {
+            return connection;
+        }
+    }
+
+    /**
+     * a while or for loop whose condition is resultSet.next()
+     */
+    public static final class RowLoop {
+        private final Tree loop;
+        private final StatementTree body;
+        private final Symbol resultSet;
+
+        private RowLoop(Tree loop, StatementTree body, Symbol resultSet) {
+            this.loop = loop;
+            this.body = body;
+            this.resultSet = resultSet;
+        }
+
+        public Tree loop() {
+            return loop;
+        }
+
+        public StatementTree body() {
+            return body;
+        }
+
+        public Symbol resultSet() {
+            return resultSet;
+        }
+    }
+
+    /**
+     * walk the body of the method
+     *
+     * @param methodTree the method declaration
+     * @return the queries of the method
+     */
+    public static MethodQueries scan(MethodTree methodTree) {
+        MethodQueries methodQueries = new MethodQueries();
+        if (methodTree.block() != null) {
+            Scanner scanner = methodQueries.new Scanner();
+            methodTree.block().accept(scanner);
+            methodQueries.bind(scanner);
+        }
+        return methodQueries;
+    }
+
+    /**
+     * @return the constant sql texts given to prepareStatement, prepareCall
+     * or executeQuery, by argument, in the order of the source code
+     */
+    public Map<ExpressionTree, SqlText> constantSql() {
+        return Collections.unmodifiableMap(constantSql);
+    }
+
+    /**
+     * @param sqlArgument the sql argument of a query method
+     * @return the parsed sql text, or null if the sql argument is not a
+     * constant
+     */
+    @CheckForNull
+    public SqlText sqlText(@Nullable ExpressionTree sqlArgument) {
+        return sqlArgument == null ? null : constantSql.get(sqlArgument);
+    }
+
+    /**
+     * @return the executeQuery invocations of the method
+     */
+    public List<Execution> executions() {
+        return Collections.unmodifiableList(executions);
+    }
+
+    /**
+     * @return the ResultSet variables assigned once, with the executeQuery
+     * invocation they are assigned with
+     */
+    public Map<Symbol, Execution> resultSets() {
+        return Collections.unmodifiableMap(resultSets);
+    }
+
+    /**
+     * @param variable the receiver variable
+     * @return the method invocations done on the variable
+     */
+    public List<MethodInvocationTree> calls(Symbol variable) {
+        return calls.getOrDefault(variable, Collections.<MethodInvocationTree>emptyList());
+    }
+
+    /**
+     * @param variable a variable of the method
+     * @return true if the variable is used for anything else than invoking a
+     * method on it or assigning it, such as being given to another method
+     */
+    public boolean escapes(Symbol variable) {
+        for (IdentifierTree usage : variable.usages()) {
+            if (!receivers.contains(usage) && !assigned.contains(usage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the loops iterating over the rows of a ResultSet variable
+     */
+    public List<RowLoop> rowLoops() {
+        return Collections.unmodifiableList(rowLoops);
+    }
+
+    /**
+     * @param expression an expression
+     * @return the expression without its enclosing parentheses
+     */
+    public static ExpressionTree skipParentheses(ExpressionTree expression) {
+        ExpressionTree skipped = expression;
+        while (skipped.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+            skipped = ((ParenthesizedTree) skipped).expression();
+        }
+        return skipped;
+    }
+
+    /**
+     * @param expression an expression
+     * @return the expression without its enclosing parentheses and casts
+     */
+    public static ExpressionTree skipCasts(ExpressionTree expression) {
+        ExpressionTree skipped = skipParentheses(expression);
+        while (skipped.is(Tree.Kind.TYPE_CAST)) {
+            skipped = skipParentheses(((TypeCastTree) skipped).expression());
+        }
+        return skipped;
+    }
+
+    /**
+     * @param methodInvocationTree a method invocation
+     * @return the receiver of the invocation when it is an identifier, or
+     * null
+     */
+    @CheckForNull
+    public static IdentifierTree receiver(MethodInvocationTree methodInvocationTree) {
+        if (!methodInvocationTree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+            return null;
+        }
+        ExpressionTree expression = skipParentheses(((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression());
+        return expression.is(Tree.Kind.IDENTIFIER) ? (IdentifierTree) expression : null;
+    }
+
+    /**
+     * bind the statement and ResultSet variables to the query methods they
+     * are assigned with, once the whole body is walked
+     */
+    private void bind(Scanner scanner) {
+        Map<Symbol, MethodInvocationTree> statements = new HashMap<>();
+        for (Map.Entry<Symbol, List<ExpressionTree>> binding : scanner.bindings.entrySet()) {
+            ExpressionTree value = binding.getValue().get(0);
+            if (binding.getValue().size() == 1 && scanner.statementFactories.containsKey(value)) {
+                statements.put(binding.getKey(), (MethodInvocationTree) value);
+            }
+        }
+        for (Execution execution : executions) {
+            MethodInvocationTree factory = execution.statement != null ? statements.get(execution.statement) : null;
+            if (factory == null) {
+                factory = scanner.chainedFactories.get(execution.invocation);
+            }
+            if (factory != null) {
+                IdentifierTree connection = receiver(factory);
+                execution.connection = connection != null ? connection.symbol() : null;
+                if (execution.sqlArgument == null && !factory.arguments().isEmpty()) {
+                    execution.sqlArgument = factory.arguments().get(0);
+                }
+            }
+        }
+        Map<Tree, Execution> executionsByInvocation = new IdentityHashMap<>();
+        for (Execution execution : executions) {
+            executionsByInvocation.put(execution.invocation, execution);
+        }
+        for (Map.Entry<Symbol, List<ExpressionTree>> binding : scanner.bindings.entrySet()) {
+            Execution execution = executionsByInvocation.get(binding.getValue().get(0));
+            if (binding.getValue().size() == 1 && execution != null) {
+                resultSets.put(binding.getKey(), execution);
+            }
+        }
+    }
+
+    /**
+     * walk of the body of a method. the classes declared in the method are
+     * left to their own visit.
+     */
+    private class Scanner extends BaseTreeVisitor {
+        private final Map<Symbol, List<ExpressionTree>> bindings = new HashMap<>();
+        private final Map<Tree, Boolean> statementFactories = new IdentityHashMap<>();
+        private final Map<Tree, MethodInvocationTree> chainedFactories = new IdentityHashMap<>();
+
+        @Override
+        public void visitClass(ClassTree tree) {
+            // the methods of the class are visited on their own
+        }
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree tree) {
+            IdentifierTree receiver = receiver(tree);
+            if (receiver != null) {
+                receivers.add(receiver);
+                calls.computeIfAbsent(receiver.symbol(), key -> new ArrayList<>()).add(tree);
+            }
+            if (QUERY_METHODS.matches(tree)) {
+                visitQueryMethod(tree, JdbcInvocationDispatcher.methodName(tree), receiver);
+            }
+            super.visitMethodInvocation(tree);
+        }
+
+        private void visitQueryMethod(MethodInvocationTree tree, String methodName, @Nullable IdentifierTree receiver) {
+            ExpressionTree sqlArgument = null;
+            if (!tree.arguments().isEmpty() && tree.arguments().get(0).symbolType().is(String.class.getCanonicalName())) {
+                sqlArgument = tree.arguments().get(0);
+                String sql = ConstantFolder.stringValue(sqlArgument);
+                if (sql != null) {
+                    constantSql.put(sqlArgument, SqlText.parse(sql));
+                }
+            }
+            if (!EXECUTE_QUERY_METHOD.equals(methodName)) {
+                statementFactories.put(tree, Boolean.TRUE);
+                return;
+            }
+            Execution execution = new Execution(tree);
+            execution.sqlArgument = sqlArgument;
+            execution.statement = receiver != null ? receiver.symbol() : null;
+            if (receiver == null && tree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+                ExpressionTree statement = skipParentheses(((MemberSelectExpressionTree) tree.methodSelect()).expression());
+                if (statement.is(Tree.Kind.METHOD_INVOCATION)) {
+                    chainedFactories.put(tree, (MethodInvocationTree) statement);
+                }
+            }
+            executions.add(execution);
+        }
+
+        @Override
+        public void visitVariable(VariableTree tree) {
+            if (tree.initializer() != null) {
+                bind(tree.symbol(), tree.initializer());
+            }
+            super.visitVariable(tree);
+        }
+
+        @Override
+        public void visitAssignmentExpression(AssignmentExpressionTree tree) {
+            if (tree.variable().is(Tree.Kind.IDENTIFIER)) {
+                IdentifierTree variable = (IdentifierTree) tree.variable();
+                assigned.add(variable);
+                bind(variable.symbol(), tree.expression());
+            }
+            super.visitAssignmentExpression(tree);
+        }
+
+        @Override
+        public void visitWhileStatement(WhileStatementTree tree) {
+            addRowLoop(tree, tree.condition(), tree.statement());
+            super.visitWhileStatement(tree);
+        }
+
+        @Override
+        public void visitForStatement(ForStatementTree tree) {
+            if (tree.condition() != null) {
+                addRowLoop(tree, tree.condition(), tree.statement());
+            }
+            super.visitForStatement(tree);
+        }
+
+        private void addRowLoop(Tree loop, ExpressionTree condition, StatementTree body) {
+            ExpressionTree expression = skipParentheses(condition);
+            if (!expression.is(Tree.Kind.METHOD_INVOCATION)) {
+                return;
+            }
+            MethodInvocationTree next = (MethodInvocationTree) expression;
+            IdentifierTree resultSet = receiver(next);
+            if (resultSet != null && next.arguments().isEmpty() && NEXT_METHOD.equals(JdbcInvocationDispatcher.methodName(next))
+                    && resultSet.symbolType().isSubtypeOf(java.sql.ResultSet.class.getCanonicalName())) {
+                rowLoops.add(new RowLoop(loop, body, resultSet.symbol()));
+            }
+        }
+
+        private void bind(Symbol symbol, ExpressionTree value) {
+            bindings.computeIfAbsent(symbol, key -> new ArrayList<>()).add(skipParentheses(value));
+        }
+    }
+}
@@ -1,24 +1,71 @@
 package com.gp.sonarqube.custom.rules;
 
-import org.apache.commons.lang.StringUtils;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author GP
  * <p>
  * Class responsible to print the AST of the Java class as tree hierarchy
+ * <p>
+ * the tree is written line by line to the given Appendable, hence a large
+ * file is never held as a whole string in memory. the print can be bounded
+ * to a max depth, restricted to some node kinds, and written as json for
+ * tooling.
  */
 public class PrinterTreeVisitor extends BaseTreeVisitor {
+    /**
+     * max depth to print the whole tree
+     */
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
     private static final int INDENT_SPACES = 4;
-    private final StringBuilder stringBuilder;
+    private static final String NO_NODE_NAME = "";
+
+    /**
+     * the node name of a tree is the simple name of the first interface of its
+     * class, computed once per class
+     */
+    private static final ClassValue<String> NODE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            Class<?>[] interfaces = type.getInterfaces();
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : NO_NODE_NAME;
+        }
+    };
+
+    /**
+     * the output formats of the tree
+     */
+    public enum Format {
+        TEXT, JSON
+    }
+
+    private final Appendable out;
+    private final Format format;
+    private final int maxDepth;
+    private final Set<Tree.Kind> kinds;
+    private final List<String> indents = new ArrayList<>();
+    private final Deque<Boolean> openNodes = new ArrayDeque<>();
+    private boolean pendingNewLine;
     private int indentLevel;
 
-    private PrinterTreeVisitor() {
-        stringBuilder = new StringBuilder();
+    private PrinterTreeVisitor(Appendable out, Format format, int maxDepth, Set<Tree.Kind> kinds) {
+        this.out = out;
+        this.format = format;
+        this.maxDepth = maxDepth;
+        this.kinds = kinds;
         indentLevel = 0;
     }
 
@@ -31,35 +78,90 @@ public class PrinterTreeVisitor extends BaseTreeVisitor {
      * @return the tree string
      */
     public static String print(Tree tree) {
-        PrinterTreeVisitor printerTreeVisitor = new PrinterTreeVisitor();
-        printerTreeVisitor.scan(tree);
-        return printerTreeVisitor.stringBuilder.toString();
+        StringBuilder stringBuilder = new StringBuilder();
+        try {
+            print(tree, stringBuilder);
+        } catch (IOException ioException) {
+            throw new IllegalStateException("StringBuilder does not throw", ioException);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * print the whole AST tree in the tree format to the given output. the
+     * output is not buffered by the method, wrap a Writer in a
+     * BufferedWriter.
+     *
+     * @param tree the tree to print
+     * @param out  the output to write the tree to
+     * @throws IOException if the output can not be written
+     */
+    public static void print(Tree tree, Appendable out) throws IOException {
+        print(tree, out, Format.TEXT, UNLIMITED_DEPTH, Collections.<Tree.Kind>emptySet());
+    }
+
+    /**
+     * print the AST tree to the given output
+     *
+     * @param tree     the tree to print
+     * @param out      the output to write the tree to
+     * @param format   the text tree format, or json
+     * @param maxDepth the depth of the deepest nodes to print, 0 being the
+     *                 given tree
+     * @param kinds    the kinds of the nodes to print, all when empty. the
+     *                 nodes of the other kinds are skipped but their children
+     *                 are printed.
+     * @throws IOException if the output can not be written
+     */
+    public static void print(Tree tree, Appendable out, Format format, int maxDepth, Set<Tree.Kind> kinds) throws IOException {
+        PrinterTreeVisitor printerTreeVisitor = new PrinterTreeVisitor(out, format, maxDepth, kinds);
+        try {
+            printerTreeVisitor.start();
+            printerTreeVisitor.scan(tree);
+            printerTreeVisitor.end();
+        } catch (UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        }
     }
 
     /**
      * method that creates the necessary indents to the string based on the
-     * level of the hierarchy.
+     * level of the hierarchy. the indents are created once per level.
      *
-     * @return the indented string
+     * @return the indent of the current level
      */
-    private StringBuilder indent() {
-        return stringBuilder.append(StringUtils.leftPad("", INDENT_SPACES * indentLevel));
+    private String indent() {
+        while (indents.size() <= indentLevel) {
+            StringBuilder indent = new StringBuilder(INDENT_SPACES * indents.size());
+            for (int i = 0; i < INDENT_SPACES * indents.size(); i++) {
+                indent.append(' ');
+            }
+            indents.add(indent.toString());
+        }
+        return indents.get(indentLevel);
     }
 
     /**
      * method overrides the BaseTreeVisitor scan method to scan through the
      * AST tree list and loop through them to create a tree representation in
-     * a string format
+     * a string format. the list brackets are only written in the text format
+     * of the whole tree.
      *
      * @param trees the list of AST trees
      */
     @Override
     protected void scan(List<? extends Tree> trees) {
-        if (!trees.isEmpty()) {
-            stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-            stringBuilder.append(" : [\n");
+        if (trees.isEmpty() || indentLevel > maxDepth) {
+            return;
+        }
+        if (format == Format.TEXT && kinds.isEmpty()) {
+            pendingNewLine = false;
+            write(" : [");
+            pendingNewLine = true;
+            super.scan(trees);
+            writeLine(indent(), "]");
+        } else {
             super.scan(trees);
-            indent().append("]\n");
         }
     }
 
@@ -71,12 +173,97 @@ public class PrinterTreeVisitor extends BaseTreeVisitor {
      */
     @Override
     protected void scan(@Nullable Tree tree) {
-        if (tree != null && tree.getClass().getInterfaces() != null && tree.getClass().getInterfaces().length > 0) {
-            String nodeName = tree.getClass().getInterfaces()[0].getSimpleName();
-            indent().append(nodeName).append("\n");
+        if (indentLevel > maxDepth) {
+            return;
+        }
+        boolean printed = false;
+        if (tree != null) {
+            String nodeName = NODE_NAMES.get(tree.getClass());
+            if (!NO_NODE_NAME.equals(nodeName) && (kinds.isEmpty() || kinds.contains(tree.kind()))) {
+                openNode(tree, nodeName);
+                printed = true;
+            }
         }
         indentLevel++;
         super.scan(tree);
         indentLevel--;
+        if (printed) {
+            closeNode();
+        }
+    }
+
+    private void start() {
+        if (format == Format.JSON) {
+            write("[");
+            openNodes.push(Boolean.FALSE);
+        }
+    }
+
+    private void end() {
+        if (format == Format.JSON) {
+            openNodes.pop();
+            write("]");
+        } else if (pendingNewLine) {
+            write("\n");
+            pendingNewLine = false;
+        }
+    }
+
+    private void openNode(Tree tree, String nodeName) {
+        if (format == Format.TEXT) {
+            writeLine(indent(), nodeName);
+            return;
+        }
+        boolean hasChildren = openNodes.pop();
+        if (hasChildren) {
+            write(",");
+        } else if (!openNodes.isEmpty()) {
+            write(",\"children\":[");
+        }
+        openNodes.push(Boolean.TRUE);
+        write("{\"kind\":\"");
+        write(tree.kind().name());
+        write("\",\"node\":\"");
+        write(nodeName);
+        write("\"");
+        SyntaxToken firstToken = tree.firstToken();
+        if (firstToken != null) {
+            write(",\"line\":");
+            write(Integer.toString(firstToken.line()));
+            write(",\"column\":");
+            write(Integer.toString(firstToken.column()));
+        }
+        openNodes.push(Boolean.FALSE);
+    }
+
+    private void closeNode() {
+        if (format == Format.JSON) {
+            if (openNodes.pop()) {
+                write("]");
+            }
+            write("}");
+        }
+    }
+
+    /**
+     * write a line of the text format. the new line of the previous line is
+     * written late, as a list of children is announced at the end of the line
+     * of its parent.
+     */
+    private void writeLine(String indent, String text) {
+        if (pendingNewLine) {
+            write("\n");
+        }
+        write(indent);
+        write(text);
+        pendingNewLine = true;
+    }
+
+    private void write(String text) {
+        try {
+            out.append(text);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
     }
 }
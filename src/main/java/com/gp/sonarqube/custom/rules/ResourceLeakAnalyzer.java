@@ -0,0 +1,770 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.CaseGroupTree;
+import org.sonar.plugins.java.api.tree.CaseLabelTree;
+import org.sonar.plugins.java.api.tree.CatchTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.IfStatementTree;
+import org.sonar.plugins.java.api.tree.LabeledStatementTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.ReturnStatementTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.SwitchStatementTree;
+import org.sonar.plugins.java.api.tree.SynchronizedStatementTree;
+import org.sonar.plugins.java.api.tree.ThrowStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TryStatementTree;
+import org.sonar.plugins.java.api.tree.TypeCastTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * @author GP
+ * <p>
+ * flow sensitive analysis of the jdbc resources acquired by a method. the
+ * analysis follows every path of the method body, including the exceptional
+ * ones, and tracks the Connection, Statement and ResultSet values stored in
+ * local variables, from their acquisition to the end of the method.
+ * <p>
+ * a resource leaks when it is still open at an exit of the method (return,
+ * throw or end of the body), or when a method invoked while it is open can
+ * throw an exception, and the resource is not closed by an enclosing try with
+ * resources or finally block. a catch block closing the resource only covers
+ * the exceptions thrown by the block of its try statement, not the other
+ * exits of the block. closing a Connection or a
+ * Statement closes the resources created from it. the catch blocks start
+ * from the resources open at the invocations of the try block that can
+ * throw, not from the state at the end of the try block.
+ * <p>
+ * the analysis is a may analysis: a resource is open after a branch if it is
+ * open on any of the branches. loops are followed twice, which is enough for
+ * a set of open resources to be stable. resources stored in a field, wrapped
+ * into a new object or returned by the method escape the analysis.
+ */
+public final class ResourceLeakAnalyzer {
+    private static final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private static final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private static final String RESULT_SET_CLASS = java.sql.ResultSet.class.getCanonicalName();
+    private static final String CLOSE_METHOD = "close";
+    private static final Pattern RELEASE_METHOD = Pattern.compile("close(Quietly|Connection|Statement|ResultSet)?|release(Connection)?|free|dispose");
+
+    /**
+     * the methods acquiring a jdbc resource that has to be closed
+     */
+    private static final JdbcMethodTable ACQUISITIONS = JdbcMethodTable.builder()
+            .addSubtypes(javax.sql.DataSource.class.getCanonicalName(), "getConnection", JdbcMethodTable.ANY_PARAMETERS)
+            .add(java.sql.DriverManager.class.getCanonicalName(), "getConnection", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, "createStatement", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, "prepareStatement", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, "prepareCall", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeQuery", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "getResultSet", 0)
+            .addSubtypes(STATEMENT_CLASS, "getGeneratedKeys", 0)
+            .build();
+
+    private final Map<Tree, Leak> leaks = new LinkedHashMap<>();
+    private final Map<Symbol, Symbol> parents = new HashMap<>();
+    private final Set<Symbol> managed = new HashSet<>();
+    private final Deque<TryStatementTree> protectingTries = new ArrayDeque<>();
+    private final Deque<TryStatementTree> catchingTries = new ArrayDeque<>();
+    private final Map<TryStatementTree, Set<Symbol>> closedByFinally = new IdentityHashMap<>();
+    private final Map<TryStatementTree, Set<Symbol>> closedByCatches = new IdentityHashMap<>();
+    private final Deque<List<State>> breakTargets = new ArrayDeque<>();
+    private final Deque<List<State>> catchTargets = new ArrayDeque<>();
+
+    private ResourceLeakAnalyzer() {
+    }
+
+    /**
+     * analyse the body of a method
+     *
+     * @param methodTree the method to analyse
+     * @return the leaks found, at most one per acquisition
+     */
+    public static Collection<Leak> analyze(MethodTree methodTree) {
+        BlockTree body = methodTree.block();
+        if (body == null) {
+            return new ArrayList<>();
+        }
+        ResourceLeakAnalyzer analyzer = new ResourceLeakAnalyzer();
+        State end = analyzer.execute(body, new State());
+        analyzer.exit(end, body.closeBraceToken());
+        return analyzer.leaks.values();
+    }
+
+    /**
+     * check if the method invocation acquires a jdbc resource
+     *
+     * @param methodInvocationTree any method invocation
+     * @return true if the invocation returns a resource that has to be closed
+     */
+    public static boolean isAcquisition(MethodInvocationTree methodInvocationTree) {
+        return ACQUISITIONS.matches(methodInvocationTree) && resourceType(methodInvocationTree) != null;
+    }
+
+    private State execute(StatementTree statement, State state) {
+        if (!state.reachable) {
+            return state;
+        }
+        switch (statement.kind()) {
+            case BLOCK:
+                return executeAll(((BlockTree) statement).body(), state);
+            case VARIABLE:
+                return executeVariable((VariableTree) statement, state);
+            case EXPRESSION_STATEMENT:
+                return executeExpressionStatement((ExpressionStatementTree) statement, state);
+            case IF_STATEMENT:
+                return executeIf((IfStatementTree) statement, state);
+            case WHILE_STATEMENT:
+                WhileStatementTree whileStatement = (WhileStatementTree) statement;
+                return executeLoop(whileStatement.condition(), whileStatement.statement(), null, state);
+            case DO_STATEMENT:
+                DoWhileStatementTree doWhileStatement = (DoWhileStatementTree) statement;
+                return executeLoop(doWhileStatement.condition(), doWhileStatement.statement(), null, state);
+            case FOR_STATEMENT:
+                ForStatementTree forStatement = (ForStatementTree) statement;
+                State initialized = executeAll(forStatement.initializer(), state);
+                return executeLoop(forStatement.condition(), forStatement.statement(), forStatement.update(), initialized);
+            case FOR_EACH_STATEMENT:
+                ForEachStatement forEachStatement = (ForEachStatement) statement;
+                evaluate(forEachStatement.expression(), state);
+                return executeLoop(null, forEachStatement.statement(), null, state);
+            case TRY_STATEMENT:
+                return executeTry((TryStatementTree) statement, state);
+            case SWITCH_STATEMENT:
+                return executeSwitch((SwitchStatementTree) statement, state);
+            case SYNCHRONIZED_STATEMENT:
+                SynchronizedStatementTree synchronizedStatement = (SynchronizedStatementTree) statement;
+                evaluate(synchronizedStatement.expression(), state);
+                return execute(synchronizedStatement.block(), state);
+            case LABELED_STATEMENT:
+                return execute(((LabeledStatementTree) statement).statement(), state);
+            case RETURN_STATEMENT:
+                ExpressionTree returned = ((ReturnStatementTree) statement).expression();
+                if (returned != null) {
+                    evaluate(returned, state);
+                    escape(returned, state);
+                }
+                exit(state, statement);
+                return State.unreachable();
+            case THROW_STATEMENT:
+                evaluate(((ThrowStatementTree) statement).expression(), state);
+                if (catchTargets.isEmpty()) {
+                    exit(state, statement);
+                } else {
+                    thrown(state);
+                }
+                return State.unreachable();
+            case BREAK_STATEMENT:
+            case CONTINUE_STATEMENT:
+                if (!breakTargets.isEmpty()) {
+                    breakTargets.peek().add(state);
+                }
+                return State.unreachable();
+            default:
+                return state;
+        }
+    }
+
+    private State executeAll(List<? extends StatementTree> statements, State state) {
+        State current = state;
+        for (StatementTree statement : statements) {
+            current = execute(statement, current);
+        }
+        return current;
+    }
+
+    private State executeVariable(VariableTree variableTree, State state) {
+        ExpressionTree initializer = variableTree.initializer();
+        if (initializer == null) {
+            return state;
+        }
+        evaluate(initializer, state);
+        store(variableTree.symbol(), initializer, state);
+        return state;
+    }
+
+    private State executeExpressionStatement(ExpressionStatementTree statement, State state) {
+        ExpressionTree expression = skipParentheses(statement.expression());
+        evaluate(expression, state);
+        if (expression.is(Tree.Kind.ASSIGNMENT)) {
+            AssignmentExpressionTree assignment = (AssignmentExpressionTree) expression;
+            Symbol variable = localVariable(assignment.variable());
+            if (variable != null) {
+                store(variable, assignment.expression(), state);
+            } else {
+                escape(assignment.expression(), state);
+            }
+        } else if (isOrphanAcquisition(expression)) {
+            addLeak(expression, false, statement);
+        }
+        return state;
+    }
+
+    private State executeIf(IfStatementTree ifStatement, State state) {
+        evaluate(ifStatement.condition(), state);
+        State thenState = state.copy();
+        State elseState = state.copy();
+        Symbol nullChecked = nullCheckedVariable(ifStatement.condition(), Tree.Kind.NOT_EQUAL_TO);
+        if (nullChecked != null) {
+            elseState.close(nullChecked);
+        }
+        nullChecked = nullCheckedVariable(ifStatement.condition(), Tree.Kind.EQUAL_TO);
+        if (nullChecked != null) {
+            thenState.close(nullChecked);
+        }
+        thenState = execute(ifStatement.thenStatement(), thenState);
+        StatementTree elseStatement = ifStatement.elseStatement();
+        if (elseStatement != null) {
+            elseState = execute(elseStatement, elseState);
+        }
+        return thenState.join(elseState);
+    }
+
+    private State executeLoop(@Nullable ExpressionTree condition, StatementTree body, @Nullable List<? extends StatementTree> update, State state) {
+        State entry = state;
+        State exits = State.unreachable();
+        for (int pass = 0; pass < 2; pass++) {
+            if (condition != null) {
+                evaluate(condition, entry);
+            }
+            exits = exits.join(entry.copy());
+            breakTargets.push(new ArrayList<>());
+            State iteration = execute(body, entry.copy());
+            for (State jumped : breakTargets.pop()) {
+                iteration = iteration.join(jumped);
+            }
+            if (update != null) {
+                iteration = executeAll(update, iteration);
+            }
+            entry = entry.copy().join(iteration);
+        }
+        return exits.join(entry);
+    }
+
+    private State executeTry(TryStatementTree tryStatement, State state) {
+        for (Tree resource : tryStatement.resourceList()) {
+            if (resource.is(Tree.Kind.VARIABLE)) {
+                VariableTree variableTree = (VariableTree) resource;
+                if (variableTree.initializer() != null) {
+                    evaluate(variableTree.initializer(), state);
+                }
+                managed.add(variableTree.symbol());
+            } else if (resource instanceof ExpressionTree) {
+                Symbol variable = localVariable((ExpressionTree) resource);
+                if (variable != null) {
+                    managed.add(variable);
+                    close(variable, state);
+                }
+            }
+        }
+        protectingTries.push(tryStatement);
+        boolean catching = !tryStatement.catches().isEmpty();
+        if (catching) {
+            catchTargets.push(new ArrayList<>());
+            catchingTries.push(tryStatement);
+        }
+        State normal = execute(tryStatement.block(), state);
+        State caught = State.unreachable();
+        if (catching) {
+            catchingTries.pop();
+            for (State thrown : catchTargets.pop()) {
+                caught = caught.join(thrown);
+            }
+        }
+        for (CatchTree catchTree : tryStatement.catches()) {
+            normal = normal.join(execute(catchTree.block(), caught.copy()));
+        }
+        protectingTries.pop();
+        BlockTree finallyBlock = tryStatement.finallyBlock();
+        if (finallyBlock != null) {
+            normal = execute(finallyBlock, normal);
+        }
+        return normal;
+    }
+
+    private State executeSwitch(SwitchStatementTree switchStatement, State state) {
+        evaluate(switchStatement.expression(), state);
+        State out = State.unreachable();
+        State fallThrough = State.unreachable();
+        boolean hasDefault = false;
+        breakTargets.push(new ArrayList<>());
+        for (CaseGroupTree caseGroup : switchStatement.cases()) {
+            for (CaseLabelTree label : caseGroup.labels()) {
+                hasDefault |= label.expression() == null;
+            }
+            fallThrough = executeAll(caseGroup.body(), state.copy().join(fallThrough));
+        }
+        for (State jumped : breakTargets.pop()) {
+            out = out.join(jumped);
+        }
+        out = out.join(fallThrough);
+        return hasDefault ? out : out.join(state);
+    }
+
+    /**
+     * evaluate an expression: closes, escapes, chained acquisitions, and the
+     * invocations that can throw while a resource is open
+     */
+    private void evaluate(@Nullable ExpressionTree expression, State state) {
+        if (expression != null && state.reachable) {
+            expression.accept(new ExpressionVisitor(state));
+        }
+    }
+
+    private void store(Symbol variable, ExpressionTree value, State state) {
+        ExpressionTree expression = skipCasts(value);
+        Resource previous = state.open.get(variable);
+        if (previous != null && !isClosedOnExit(variable, false)) {
+            addLeak(previous.acquisition, false, value);
+        }
+        state.open.remove(variable);
+        parents.remove(variable);
+        if (!isLocal(variable) || managed.contains(variable)) {
+            return;
+        }
+        if (expression.is(Tree.Kind.METHOD_INVOCATION) && isAcquisition((MethodInvocationTree) expression)) {
+            MethodInvocationTree acquisition = (MethodInvocationTree) expression;
+            state.open.put(variable, new Resource(acquisition));
+            Symbol parent = receiverVariable(acquisition);
+            if (parent != null) {
+                parents.put(variable, parent);
+            }
+        } else {
+            escape(value, state);
+        }
+    }
+
+    private void escape(ExpressionTree expression, State state) {
+        Symbol variable = localVariable(skipCasts(expression));
+        if (variable != null) {
+            state.open.remove(variable);
+        }
+    }
+
+    private void throwingPoint(Tree tree, State state) {
+        for (Map.Entry<Symbol, Resource> entry : state.open.entrySet()) {
+            Resource resource = entry.getValue();
+            if (resource.acquisition != tree && !isClosedOnExit(entry.getKey(), true)) {
+                addLeak(resource.acquisition, true, tree);
+            }
+        }
+        thrown(state);
+    }
+
+    /**
+     * remember the state at a point throwing an exception, as a possible
+     * entry state of the catch blocks of the enclosing try statements
+     */
+    private void thrown(State state) {
+        for (List<State> catchTarget : catchTargets) {
+            catchTarget.add(state.copy());
+        }
+    }
+
+    /**
+     * close a resource, along with the resources created from it
+     */
+    private void close(Symbol variable, State state) {
+        state.close(variable);
+        state.open.keySet().removeIf(resource -> isCreatedFrom(resource, variable));
+    }
+
+    private boolean isCreatedFrom(Symbol resource, Symbol ancestor) {
+        Set<Symbol> visited = new HashSet<>();
+        Symbol current = parents.get(resource);
+        while (current != null && visited.add(current)) {
+            if (current.equals(ancestor)) {
+                return true;
+            }
+            current = parents.get(current);
+        }
+        return false;
+    }
+
+    private void exit(State state, Tree exit) {
+        if (!state.reachable) {
+            return;
+        }
+        for (Map.Entry<Symbol, Resource> entry : state.open.entrySet()) {
+            if (!isClosedOnExit(entry.getKey(), false)) {
+                addLeak(entry.getValue().acquisition, false, exit);
+            }
+        }
+    }
+
+    private void addLeak(Tree acquisition, boolean exceptional, Tree location) {
+        Leak leak = leaks.get(acquisition);
+        if (leak == null || (leak.exceptional && !exceptional)) {
+            MethodInvocationTree methodInvocationTree = (MethodInvocationTree) acquisition;
+            leaks.put(acquisition, new Leak(methodInvocationTree, resourceType(methodInvocationTree), exceptional, location));
+        }
+    }
+
+    /**
+     * a resource is closed on exit when it, or the resource it is created
+     * from, is managed by a try with resources, or closed by the finally
+     * block of an enclosing try statement. on an exception, the catch blocks
+     * of the try statements whose block is running close it as well.
+     *
+     * @param exceptional true for an exception thrown by an invocation, false
+     *                    for a return, the end of the method, or a value
+     *                    overwritten by an assignment
+     */
+    private boolean isClosedOnExit(Symbol variable, boolean exceptional) {
+        Set<Symbol> visited = new HashSet<>();
+        Symbol current = variable;
+        while (current != null && visited.add(current)) {
+            if (managed.contains(current)) {
+                return true;
+            }
+            for (TryStatementTree tryStatement : protectingTries) {
+                if (closedByFinally.computeIfAbsent(tryStatement, ResourceLeakAnalyzer::closedByFinally).contains(current)) {
+                    return true;
+                }
+            }
+            if (exceptional) {
+                for (TryStatementTree tryStatement : catchingTries) {
+                    if (closedByCatches.computeIfAbsent(tryStatement, ResourceLeakAnalyzer::closedByCatches).contains(current)) {
+                        return true;
+                    }
+                }
+            }
+            current = parents.get(current);
+        }
+        return false;
+    }
+
+    private static Set<Symbol> closedByFinally(TryStatementTree tryStatement) {
+        BlockTree finallyBlock = tryStatement.finallyBlock();
+        return finallyBlock != null ? closedSymbols(finallyBlock) : new HashSet<>();
+    }
+
+    private static Set<Symbol> closedByCatches(TryStatementTree tryStatement) {
+        Set<Symbol> closed = new HashSet<>();
+        for (CatchTree catchTree : tryStatement.catches()) {
+            closed.addAll(closedSymbols(catchTree.block()));
+        }
+        return closed;
+    }
+
+    /**
+     * find the variables closed in a block: receivers of a close method, and
+     * arguments of a method releasing them such as closeQuietly
+     */
+    private static Set<Symbol> closedSymbols(Tree tree) {
+        Set<Symbol> closed = new HashSet<>();
+        tree.accept(new BaseTreeVisitor() {
+            @Override
+            public void visitMethodInvocation(MethodInvocationTree methodInvocationTree) {
+                super.visitMethodInvocation(methodInvocationTree);
+                Symbol receiver = closedReceiver(methodInvocationTree);
+                if (receiver != null) {
+                    closed.add(receiver);
+                }
+                if (isReleaseMethod(methodInvocationTree)) {
+                    for (ExpressionTree argument : methodInvocationTree.arguments()) {
+                        Symbol variable = localVariable(skipCasts(argument));
+                        if (variable != null) {
+                            closed.add(variable);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void visitClass(ClassTree tree) {
+                // the classes declared in the block are not run by the block
+            }
+        });
+        return closed;
+    }
+
+    /**
+     * an acquisition whose result is not stored in a variable is never
+     * closed, unless it is created from a Connection or Statement variable,
+     * which closes it when it is closed itself
+     */
+    private static boolean isOrphanAcquisition(ExpressionTree expression) {
+        if (!expression.is(Tree.Kind.METHOD_INVOCATION) || !isAcquisition((MethodInvocationTree) expression)) {
+            return false;
+        }
+        Symbol receiver = receiverVariable((MethodInvocationTree) expression);
+        return receiver == null
+                || !(receiver.type().isSubtypeOf(CONNECTION_CLASS) || receiver.type().isSubtypeOf(STATEMENT_CLASS));
+    }
+
+    @CheckForNull
+    private static Symbol closedReceiver(MethodInvocationTree methodInvocationTree) {
+        if (!CLOSE_METHOD.equals(JdbcInvocationDispatcher.methodName(methodInvocationTree)) || !methodInvocationTree.arguments().isEmpty()) {
+            return null;
+        }
+        return receiverVariable(methodInvocationTree);
+    }
+
+    private static boolean isReleaseMethod(MethodInvocationTree methodInvocationTree) {
+        return RELEASE_METHOD.matcher(JdbcInvocationDispatcher.methodName(methodInvocationTree)).matches();
+    }
+
+    @CheckForNull
+    private static Symbol receiverVariable(MethodInvocationTree methodInvocationTree) {
+        if (!methodInvocationTree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+            return null;
+        }
+        return localVariable(skipCasts(((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression()));
+    }
+
+    @CheckForNull
+    private static Symbol localVariable(ExpressionTree expression) {
+        if (!expression.is(Tree.Kind.IDENTIFIER)) {
+            return null;
+        }
+        Symbol symbol = ((IdentifierTree) expression).symbol();
+        return isLocal(symbol) ? symbol : null;
+    }
+
+    private static boolean isLocal(Symbol symbol) {
+        Symbol owner = symbol.owner();
+        return symbol.isVariableSymbol() && owner != null && owner.isMethodSymbol();
+    }
+
+    @CheckForNull
+    private static Symbol nullCheckedVariable(ExpressionTree condition, Tree.Kind kind) {
+        ExpressionTree expression = skipParentheses(condition);
+        if (!expression.is(kind)) {
+            return null;
+        }
+        BinaryExpressionTree binary = (BinaryExpressionTree) expression;
+        if (binary.rightOperand().is(Tree.Kind.NULL_LITERAL)) {
+            return localVariable(skipParentheses(binary.leftOperand()));
+        }
+        if (binary.leftOperand().is(Tree.Kind.NULL_LITERAL)) {
+            return localVariable(skipParentheses(binary.rightOperand()));
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private static String resourceType(MethodInvocationTree methodInvocationTree) {
+        org.sonar.plugins.java.api.semantic.Type type = methodInvocationTree.symbolType();
+        if (type.isSubtypeOf(CONNECTION_CLASS)) {
+            return "Connection";
+        }
+        if (type.isSubtypeOf(STATEMENT_CLASS)) {
+            return type.isSubtypeOf(java.sql.PreparedStatement.class.getCanonicalName()) ? "PreparedStatement" : "Statement";
+        }
+        if (type.isSubtypeOf(RESULT_SET_CLASS)) {
+            return "ResultSet";
+        }
+        return null;
+    }
+
+    private static ExpressionTree skipParentheses(ExpressionTree tree) {
+        ExpressionTree expression = tree;
+        while (expression.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+            expression = ((ParenthesizedTree) expression).expression();
+        }
+        return expression;
+    }
+
+    private static ExpressionTree skipCasts(ExpressionTree tree) {
+        ExpressionTree expression = skipParentheses(tree);
+        while (expression.is(Tree.Kind.TYPE_CAST)) {
+            expression = skipParentheses(((TypeCastTree) expression).expression());
+        }
+        return expression;
+    }
+
+    /**
+     * visitor of an expression. the sub expressions are visited before the
+     * expression itself, in evaluation order.
+     */
+    private class ExpressionVisitor extends BaseTreeVisitor {
+        private final State state;
+
+        private ExpressionVisitor(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree methodInvocationTree) {
+            super.visitMethodInvocation(methodInvocationTree);
+            Symbol closed = closedReceiver(methodInvocationTree);
+            if (closed != null) {
+                close(closed, state);
+                return;
+            }
+            if (isReleaseMethod(methodInvocationTree)) {
+                for (ExpressionTree argument : methodInvocationTree.arguments()) {
+                    Symbol variable = localVariable(skipCasts(argument));
+                    if (variable != null) {
+                        close(variable, state);
+                    }
+                }
+                return;
+            }
+            throwingPoint(methodInvocationTree, state);
+            if (methodInvocationTree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+                ExpressionTree receiver = skipCasts(((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression());
+                if (isOrphanAcquisition(receiver)) {
+                    addLeak(receiver, false, methodInvocationTree);
+                }
+            }
+        }
+
+        @Override
+        public void visitNewClass(NewClassTree tree) {
+            super.visitNewClass(tree);
+            throwingPoint(tree, state);
+            for (ExpressionTree argument : tree.arguments()) {
+                escape(argument, state);
+            }
+        }
+
+        @Override
+        public void visitAssignmentExpression(AssignmentExpressionTree tree) {
+            super.visitAssignmentExpression(tree);
+            if (localVariable(tree.variable()) == null) {
+                escape(tree.expression(), state);
+            }
+        }
+
+        @Override
+        public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+            // the body of the lambda is not run when the lambda is created
+        }
+
+        @Override
+        public void visitClass(ClassTree tree) {
+            // the body of an anonymous class is not run when it is created
+        }
+    }
+
+    /**
+     * the jdbc resources that may be open at a point of the method
+     */
+    private static final class State {
+        private final Map<Symbol, Resource> open;
+        private final boolean reachable;
+
+        private State() {
+            this(new LinkedHashMap<>(), true);
+        }
+
+        private State(Map<Symbol, Resource> open, boolean reachable) {
+            this.open = open;
+            this.reachable = reachable;
+        }
+
+        private static State unreachable() {
+            return new State(new LinkedHashMap<>(), false);
+        }
+
+        private State copy() {
+            return new State(new LinkedHashMap<>(open), reachable);
+        }
+
+        private State join(State other) {
+            if (!other.reachable) {
+                return this;
+            }
+            if (!reachable) {
+                return other;
+            }
+            other.open.forEach(open::putIfAbsent);
+            return this;
+        }
+
+        private void close(Symbol variable) {
+            open.remove(variable);
+        }
+    }
+
+    /**
+     * a jdbc resource acquired by the method
+     */
+    private static final class Resource {
+        private final MethodInvocationTree acquisition;
+
+        private Resource(MethodInvocationTree acquisition) {
+            this.acquisition = acquisition;
+        }
+    }
+
+    /**
+     * a jdbc resource that is not closed on every path
+     */
+    public static final class Leak {
+        private final MethodInvocationTree acquisition;
+        private final String resourceType;
+        private final boolean exceptional;
+        private final Tree location;
+
+        private Leak(MethodInvocationTree acquisition, @Nullable String resourceType, boolean exceptional, Tree location) {
+            this.acquisition = acquisition;
+            this.resourceType = resourceType;
+            this.exceptional = exceptional;
+            this.location = location;
+        }
+
+        /**
+         * @return the invocation acquiring the resource
+         */
+        public MethodInvocationTree acquisition() {
+            return acquisition;
+        }
+
+        /**
+         * @return the simple name of the resource type, such as Connection
+         */
+        public String resourceType() {
+            return resourceType;
+        }
+
+        /**
+         * @return true if the resource leaks only when an exception is thrown
+         */
+        public boolean isExceptional() {
+            return exceptional;
+        }
+
+        /**
+         * @return the exit, or the invocation throwing the exception, where the
+         * resource leaks
+         */
+        public Tree location() {
+            return location;
+        }
+    }
+}
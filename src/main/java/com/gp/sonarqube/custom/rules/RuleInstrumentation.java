@@ -0,0 +1,197 @@
+package com.gp.sonarqube.custom.rules;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author GP
+ * <p>
+ * optional instrumentation of the checks of the plugin. when enabled, every
+ * check records the wall time spent in its visit methods, the nodes visited
+ * and the issues raised, per file, and the totals are kept here by rule and
+ * by file. the summary report tells the slow rules and the large files.
+ * <p>
+ * the instrumentation is enabled with the analysis setting
+ * sonar.jdbc.instrumentation=true, read by the JdbcRulesSettings when the
+ * analysis starts. when disabled, the checks only test the flag once per
+ * file.
+ */
+public final class RuleInstrumentation {
+    /**
+     * analysis setting enabling the instrumentation
+     */
+    public static final String ENABLED_PROPERTY = "sonar.jdbc.instrumentation";
+    /**
+     * analysis setting giving the path of the report file
+     */
+    public static final String REPORT_PATH_PROPERTY = "sonar.jdbc.instrumentation.reportPath";
+    /**
+     * default path of the report file, relative to the working directory
+     */
+    public static final String DEFAULT_REPORT_PATH = "jdbc-rules-instrumentation.txt";
+
+    private static volatile boolean enabled;
+    private static final int REPORTED_FILES = 20;
+
+    private static final ConcurrentMap<String, Counters> RULES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counters> FILES = new ConcurrentHashMap<>();
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private RuleInstrumentation() {
+    }
+
+    /**
+     * the time, node and issue counters of a rule or a file
+     */
+    public static final class Counters {
+        private final String name;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder nodes = new LongAdder();
+        private final LongAdder issues = new LongAdder();
+        private final LongAdder files = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> nanosByKey = new ConcurrentHashMap<>();
+
+        private Counters(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long nanos() {
+            return nanos.sum();
+        }
+
+        public long nodes() {
+            return nodes.sum();
+        }
+
+        public long issues() {
+            return issues.sum();
+        }
+
+        public long files() {
+            return files.sum();
+        }
+
+        private void add(String key, long nanos, long nodes, long issues) {
+            this.nanos.add(nanos);
+            this.nodes.add(nodes);
+            this.issues.add(issues);
+            this.files.increment();
+            nanosByKey.computeIfAbsent(key, k -> new LongAdder()).add(nanos);
+        }
+
+        /**
+         * @return the name of the rule (for a file) or the file (for a rule)
+         * with the most time spent
+         */
+        private String slowest() {
+            String slowest = "";
+            long slowestNanos = -1;
+            for (Map.Entry<String, LongAdder> entry : nanosByKey.entrySet()) {
+                long entryNanos = entry.getValue().sum();
+                if (entryNanos > slowestNanos) {
+                    slowest = entry.getKey();
+                    slowestNanos = entryNanos;
+                }
+            }
+            return slowest;
+        }
+    }
+
+    /**
+     * @return true if the checks should record their counters
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * enable or disable the recording of the counters
+     *
+     * @param enabled true to let the checks record their counters
+     */
+    public static void setEnabled(boolean enabled) {
+        RuleInstrumentation.enabled = enabled;
+    }
+
+    /**
+     * record the counters of one rule on one file
+     *
+     * @param rule   the rule key
+     * @param file   the path of the analysed file
+     * @param nanos  the wall time spent by the rule on the file
+     * @param nodes  the number of nodes visited by the rule
+     * @param issues the number of issues raised by the rule
+     */
+    public static void record(String rule, String file, long nanos, long nodes, long issues) {
+        RULES.computeIfAbsent(rule, Counters::new).add(file, nanos, nodes, issues);
+        FILES.computeIfAbsent(file, Counters::new).add(rule, nanos, nodes, issues);
+    }
+
+    /**
+     * @return the counters of the rules, the slowest rule first
+     */
+    public static List<Counters> rules() {
+        return sorted(RULES);
+    }
+
+    /**
+     * @return the counters of the files, the slowest file first
+     */
+    public static List<Counters> files() {
+        return sorted(FILES);
+    }
+
+    /**
+     * forget all the recorded counters
+     */
+    public static void reset() {
+        RULES.clear();
+        FILES.clear();
+    }
+
+    /**
+     * write the summary report: the rules by time spent, then the slowest
+     * files with the rule taking most of their time
+     *
+     * @param out the output to write the report to
+     * @throws IOException if the output can not be written
+     */
+    public static void report(Appendable out) throws IOException {
+        out.append(String.format(Locale.US, "%-32s %12s %12s %10s %8s%n", "Rule", "Time (ms)", "Nodes", "Issues", "Files"));
+        for (Counters rule : rules()) {
+            out.append(String.format(Locale.US, "%-32s %12.1f %12d %10d %8d%n",
+                    rule.name(), millis(rule.nanos()), rule.nodes(), rule.issues(), rule.files()));
+        }
+        out.append(String.format(Locale.US, "%nSlowest files%n"));
+        out.append(String.format(Locale.US, "%12s %12s %-32s %s%n", "Time (ms)", "Nodes", "Slowest rule", "File"));
+        List<Counters> files = files();
+        for (Counters file : files.subList(0, Math.min(REPORTED_FILES, files.size()))) {
+            out.append(String.format(Locale.US, "%12.1f %12d %-32s %s%n",
+                    millis(file.nanos()), file.nodes(), file.slowest(), file.name()));
+        }
+    }
+
+    private static List<Counters> sorted(Map<String, Counters> counters) {
+        List<Counters> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong(Counters::nanos).reversed());
+        return sorted;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.io.Resources;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @author GP
+ * <p>
+ * single file index of the metadata of all the rules. the index is generated
+ * at build time, from the *_java.json and *_java.html files present at
+ * /org/sonar/l10n/java/rules/squid, and stored next to them. the rules
+ * definition reads the index once, instead of reading and parsing two files
+ * per rule at every start of the sonarqube server.
+ */
+public final class RuleMetadataIndex {
+    /**
+     * name of the index file, in the same directory as the rule metadata
+     */
+    public static final String FILE_NAME = "rules-index.json";
+
+    private static final String METADATA_SUFFIX = "_java.json";
+    private static final String DESCRIPTION_SUFFIX = "_java.html";
+    private static final Type INDEX_TYPE = new TypeToken<Map<String, Entry>>() {
+    }.getType();
+
+    /**
+     * private constructor to stop instantiating the class
+     */
+    private RuleMetadataIndex() {
+    }
+
+    /**
+     * the metadata and html description of one rule
+     */
+    public static class Entry {
+        public RuleMetadata metadata;
+        public String description;
+    }
+
+    /**
+     * load the index from the classpath
+     *
+     * @param gson          the gson instance used to parse the index
+     * @param indexResource the index resource, or null if the index was not
+     *                      generated
+     * @return the entries of the index by metadata key, empty if there is no
+     * index
+     */
+    public static Map<String, Entry> load(Gson gson, URL indexResource) {
+        if (indexResource == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Entry> index = gson.fromJson(Resources.toString(indexResource, UTF_8), INDEX_TYPE);
+            return index == null ? Collections.<String, Entry>emptyMap() : index;
+        } catch (IOException ioException) {
+            throw new IllegalStateException("Failed to read: " + indexResource, ioException);
+        }
+    }
+
+    /**
+     * build time generation of the index, run by the exec-maven-plugin in the
+     * process-classes phase
+     *
+     * @param args the directory of the rule metadata files, and the index file
+     *             to write
+     * @throws IOException if a file can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: RuleMetadataIndex <metadata directory> <index file>");
+        }
+        File directory = new File(args[0]);
+        File[] metadataFiles = directory.listFiles((dir, name) -> name.endsWith(METADATA_SUFFIX));
+        if (metadataFiles == null) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        Gson gson = new Gson();
+        Map<String, Entry> index = new TreeMap<>();
+        for (File metadataFile : metadataFiles) {
+            String metadataKey = metadataFile.getName().substring(0, metadataFile.getName().length() - METADATA_SUFFIX.length());
+            Entry entry = new Entry();
+            entry.metadata = gson.fromJson(new String(Files.readAllBytes(metadataFile.toPath()), UTF_8), RuleMetadata.class);
+            File descriptionFile = new File(directory, metadataKey + DESCRIPTION_SUFFIX);
+            if (descriptionFile.isFile()) {
+                entry.description = new String(Files.readAllBytes(descriptionFile.toPath()), UTF_8);
+            }
+            index.put(metadataKey, entry);
+        }
+        File indexFile = new File(args[1]);
+        Files.createDirectories(indexFile.getParentFile().toPath());
+        Files.write(indexFile.toPath(), gson.toJson(index, INDEX_TYPE).getBytes(UTF_8));
+    }
+}
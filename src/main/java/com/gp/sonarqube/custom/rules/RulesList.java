@@ -1,9 +1,22 @@
 package com.gp.sonarqube.custom.rules;
 
 import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.checks.AutoCommitInLoopCheckRule;
+import com.gp.sonarqube.custom.rules.checks.ClientSideAggregationCheckRule;
+import com.gp.sonarqube.custom.rules.checks.ColumnLabelInLoopCheckRule;
 import com.gp.sonarqube.custom.rules.checks.ConnectionCloseCheckRule;
+import com.gp.sonarqube.custom.rules.checks.ConnectionInLoopCheckRule;
+import com.gp.sonarqube.custom.rules.checks.LobMaterializationCheckRule;
+import com.gp.sonarqube.custom.rules.checks.LockedJdbcCallCheckRule;
+import com.gp.sonarqube.custom.rules.checks.MissingBatchCheckRule;
+import com.gp.sonarqube.custom.rules.checks.NonConstantSqlCheckRule;
+import com.gp.sonarqube.custom.rules.checks.PrepareInLoopCheckRule;
+import com.gp.sonarqube.custom.rules.checks.QueryInLoopCheckRule;
+import com.gp.sonarqube.custom.rules.checks.ResourceLeakCheckRule;
 import com.gp.sonarqube.custom.rules.checks.ResultSetCloseCheckRule;
+import com.gp.sonarqube.custom.rules.checks.SelectColumnsCheckRule;
 import com.gp.sonarqube.custom.rules.checks.StatementCloseCheckRule;
+import com.gp.sonarqube.custom.rules.checks.UnboundedResultSetCheckRule;
 import org.sonar.plugins.java.api.JavaCheck;
 
 import java.util.List;
@@ -41,6 +54,19 @@ public final class RulesList {
                 .add(ResultSetCloseCheckRule.class)
                 .add(StatementCloseCheckRule.class)
                 .add(ConnectionCloseCheckRule.class)
+                .add(QueryInLoopCheckRule.class)
+                .add(MissingBatchCheckRule.class)
+                .add(PrepareInLoopCheckRule.class)
+                .add(NonConstantSqlCheckRule.class)
+                .add(ResourceLeakCheckRule.class)
+                .add(AutoCommitInLoopCheckRule.class)
+                .add(SelectColumnsCheckRule.class)
+                .add(UnboundedResultSetCheckRule.class)
+                .add(ColumnLabelInLoopCheckRule.class)
+                .add(ConnectionInLoopCheckRule.class)
+                .add(LobMaterializationCheckRule.class)
+                .add(LockedJdbcCallCheckRule.class)
+                .add(ClientSideAggregationCheckRule.class)
                 .build();
     }
 
@@ -0,0 +1,285 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author GP
+ * <p>
+ * light parser of the constant sql text given to the jdbc api. the parser
+ * does not validate the sql, it only finds what the checks need: whether the
+ * text is a query, and the items of its select list. the string literals and
+ * comments of the sql are blanked before any search, and the keywords are
+ * searched at the top level only, outside of any parentheses.
+ */
+public final class SqlText {
+    private static final Pattern STAR_ITEM = Pattern.compile("(?:[\\w$\"]+\\.)*\\*");
+    private static final Pattern COLUMN_ITEM = Pattern.compile("(?:[\\w$\"]+\\.)*([\\w$\"]+)");
+    private static final Pattern ALIASED_ITEM = Pattern.compile("(?s)(.*\\S)\\s+(?:as\\s+)?(\"[^\"]+\"|[\\w$]+)");
+    private static final Pattern TOP_CLAUSE = Pattern.compile("(?s)top\\s*\\(?\\s*\\d+\\s*\\)?\\s+(.*)");
+    private static final Pattern TOP_PREFIX = Pattern.compile("(?s)select\\s+(?:distinct\\s+|all\\s+)?top\\b.*");
+    private static final String OPERATOR_CHARACTERS = "+-*/%|&^=<>!~,(";
+    private static final List<String> NON_ALIAS_KEYWORDS = ImmutableList.of(
+            "end", "null", "true", "false", "from", "distinct", "all");
+    private static final List<String> COMPOUND_KEYWORDS = ImmutableList.of(
+            "union", "intersect", "except", "minus");
+
+    private final String normalized;
+    private final boolean select;
+    private final boolean compound;
+    private final List<SelectItem> selectItems;
+
+    private SqlText(String normalized, boolean select, boolean compound, List<SelectItem> selectItems) {
+        this.normalized = normalized;
+        this.select = select;
+        this.compound = compound;
+        this.selectItems = selectItems;
+    }
+
+    /**
+     * an item of the select list of a query
+     */
+    public static final class SelectItem {
+        private final String text;
+        private final String label;
+        private final boolean star;
+
+        private SelectItem(String text, String label, boolean star) {
+            this.text = text;
+            this.label = label;
+            this.star = star;
+        }
+
+        /**
+         * @return the text of the item, in lower case
+         */
+        public String text() {
+            return text;
+        }
+
+        /**
+         * @return the label of the column in the ResultSet (the alias, or
+         * the column name), in lower case, or null if the column has no
+         * predictable label
+         */
+        @CheckForNull
+        public String label() {
+            return label;
+        }
+
+        /**
+         * @return true if the item is "*" or "table.*"
+         */
+        public boolean isStar() {
+            return star;
+        }
+    }
+
+    /**
+     * parse the sql text
+     *
+     * @param sql the sql text
+     * @return the parsed sql text
+     */
+    public static SqlText parse(String sql) {
+        String normalized = normalize(sql);
+        String trimmed = normalized.trim();
+        boolean select = startsWithKeyword(trimmed, "select");
+        if (!select) {
+            return new SqlText(normalized, false, false, Collections.<SelectItem>emptyList());
+        }
+        boolean compound = false;
+        for (String keyword : COMPOUND_KEYWORDS) {
+            compound |= indexOfKeyword(trimmed, keyword, 0) >= 0;
+        }
+        return new SqlText(normalized, true, compound, selectItems(trimmed));
+    }
+
+    /**
+     * @return true if the sql text is a query
+     */
+    public boolean isSelect() {
+        return select;
+    }
+
+    /**
+     * @return true if the query combines several queries with union,
+     * intersect, except or minus
+     */
+    public boolean isCompound() {
+        return compound;
+    }
+
+    /**
+     * @return the items of the select list of the query, empty if the sql
+     * text is not a query
+     */
+    public List<SelectItem> selectItems() {
+        return selectItems;
+    }
+
+    /**
+     * @return true if the select list has a "*" item
+     */
+    public boolean selectsAllColumns() {
+        for (SelectItem selectItem : selectItems) {
+            if (selectItem.isStar()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the query limits the number of rows it returns, with
+     * limit, fetch first (or next), top or rownum at the top level
+     */
+    public boolean limitsRows() {
+        return containsKeyword("limit") || containsKeyword("fetch") || containsKeyword("rownum")
+                || TOP_PREFIX.matcher(normalized.trim()).matches();
+    }
+
+    /**
+     * @param keyword the keyword to search, in lower case
+     * @return true if the keyword is used at the top level of the sql text
+     */
+    public boolean containsKeyword(String keyword) {
+        return indexOfKeyword(normalized, keyword, 0) >= 0;
+    }
+
+    private static List<SelectItem> selectItems(String query) {
+        int start = "select".length();
+        int from = indexOfKeyword(query, "from", start);
+        String list = query.substring(start, from < 0 ? query.length() : from).trim();
+        for (String quantifier : new String[]{"distinct", "all"}) {
+            if (startsWithKeyword(list, quantifier)) {
+                list = list.substring(quantifier.length()).trim();
+            }
+        }
+        Matcher top = TOP_CLAUSE.matcher(list);
+        if (top.matches()) {
+            list = top.group(1).trim();
+        }
+        List<SelectItem> items = new ArrayList<>();
+        int depth = 0;
+        int itemStart = 0;
+        for (int i = 0; i <= list.length(); i++) {
+            char c = i < list.length() ? list.charAt(i) : ',';
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                String item = list.substring(itemStart, i).trim();
+                if (!item.isEmpty()) {
+                    items.add(selectItem(item));
+                }
+                itemStart = i + 1;
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private static SelectItem selectItem(String item) {
+        if (STAR_ITEM.matcher(item).matches()) {
+            return new SelectItem(item, null, true);
+        }
+        Matcher column = COLUMN_ITEM.matcher(item);
+        if (column.matches()) {
+            return new SelectItem(item, unquote(column.group(1)), false);
+        }
+        Matcher aliased = ALIASED_ITEM.matcher(item);
+        if (aliased.matches()) {
+            String expression = aliased.group(1);
+            String alias = aliased.group(2);
+            if (OPERATOR_CHARACTERS.indexOf(expression.charAt(expression.length() - 1)) < 0 && !NON_ALIAS_KEYWORDS.contains(alias)) {
+                return new SelectItem(item, unquote(alias), false);
+            }
+        }
+        return new SelectItem(item, null, false);
+    }
+
+    private static String unquote(String identifier) {
+        if (identifier.length() > 1 && identifier.startsWith("\"") && identifier.endsWith("\"")) {
+            return identifier.substring(1, identifier.length() - 1);
+        }
+        return identifier;
+    }
+
+    /**
+     * lower case the sql text, and replace the content of the string literals
+     * and the comments with spaces, keeping the positions of the text
+     */
+    private static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.toLowerCase(Locale.ROOT));
+        int i = 0;
+        while (i < normalized.length()) {
+            char c = normalized.charAt(i);
+            if (c == '\'') {
+                int end = i + 1;
+                while (end < normalized.length() && !(normalized.charAt(end) == '\''
+                        && (end + 1 >= normalized.length() || normalized.charAt(end + 1) != '\''))) {
+                    end += normalized.charAt(end) == '\'' ? 2 : 1;
+                }
+                blank(normalized, i + 1, end);
+                i = end + 1;
+            } else if (c == '-' && i + 1 < normalized.length() && normalized.charAt(i + 1) == '-') {
+                int end = normalized.indexOf("\n", i);
+                end = end < 0 ? normalized.length() : end;
+                blank(normalized, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < normalized.length() && normalized.charAt(i + 1) == '*') {
+                int end = normalized.indexOf("*/", i + 2);
+                end = end < 0 ? normalized.length() : end + 2;
+                blank(normalized, i, end);
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static void blank(StringBuilder text, int start, int end) {
+        for (int i = start; i < Math.min(end, text.length()); i++) {
+            text.setCharAt(i, ' ');
+        }
+    }
+
+    private static boolean startsWithKeyword(String text, String keyword) {
+        return text.startsWith(keyword) && (text.length() == keyword.length() || !isIdentifierPart(text.charAt(keyword.length())));
+    }
+
+    /**
+     * find a keyword outside of any parentheses
+     *
+     * @return the index of the keyword, or -1 if the keyword is not found
+     */
+    private static int indexOfKeyword(String text, String keyword, int from) {
+        int depth = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && text.startsWith(keyword, i)
+                    && (i == 0 || !isIdentifierPart(text.charAt(i - 1)))
+                    && (i + keyword.length() == text.length() || !isIdentifierPart(text.charAt(i + keyword.length())))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+    }
+}
@@ -0,0 +1,260 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code writes rows in a loop through
+ * a connection left in auto-commit mode. every executeUpdate (or
+ * executeBatch) then commits its own transaction, with a flush of the
+ * database log per row.
+ * <p>
+ * the connection is found from the statement, created by prepareStatement,
+ * prepareCall or createStatement on it. only the connections acquired in the
+ * method itself are checked: local variables whose only value is given by
+ * DataSource#getConnection or DriverManager#getConnection. the transaction of
+ * a connection received as parameter, kept in a field, or handed out by a
+ * framework (such as the DataSourceUtils of spring) is the business of the
+ * caller or of the container.
+ */
+@Rule(key = "AutoCommitInLoopCheckRule")
+public class AutoCommitInLoopCheckRule extends LoopTrackingCheck {
+    private final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private final String SET_AUTO_COMMIT_METHOD = "setAutoCommit";
+    private final String GET_CONNECTION_METHOD = "getConnection";
+    private final List<String> STATEMENT_FACTORY_METHODS = ImmutableList.of("prepareStatement", "prepareCall", "createStatement");
+
+    /**
+     * defining the method table with the write methods of the Statement
+     * class, and the setAutoCommit method of the Connection class
+     */
+    private final JdbcMethodTable STATEMENT_WRITE = JdbcMethodTable.builder()
+            .addSubtypes(STATEMENT_CLASS, "executeUpdate", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeLargeUpdate", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeBatch", 0)
+            .addSubtypes(STATEMENT_CLASS, "executeLargeBatch", 0)
+            .addSubtypes(CONNECTION_CLASS, SET_AUTO_COMMIT_METHOD, 1)
+            .build();
+
+    /**
+     * defining the method table with the methods acquiring a connection
+     */
+    private final JdbcMethodTable CONNECTION_ACQUISITION = JdbcMethodTable.builder()
+            .addSubtypes(javax.sql.DataSource.class.getCanonicalName(), GET_CONNECTION_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .add(java.sql.DriverManager.class.getCanonicalName(), GET_CONNECTION_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Deque<MethodFrame> methodFrames = new ArrayDeque<>();
+
+    /**
+     * the connections of a method: the connections acquired by the method,
+     * and the connections already switched to manual commit
+     */
+    private static final class MethodFrame {
+        private final Set<Symbol> acquiredConnections = new HashSet<>();
+        private final Set<Symbol> manualCommitConnections = new HashSet<>();
+    }
+
+    /**
+     * @return the method table with the sql Statement write methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return STATEMENT_WRITE;
+    }
+
+    /**
+     * on top of the method invocations and loops, the check visits the
+     * methods to know the connections obtained in each method
+     *
+     * @return source code nodes that invoke a method, loop or declare a
+     * method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return ImmutableList.<Kind>builder().addAll(super.nodesToVisit()).add(METHOD, CONSTRUCTOR).build();
+    }
+
+    /**
+     * enter the methods, and let the base class track the loops and dispatch
+     * the method invocations
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(METHOD, CONSTRUCTOR)) {
+            MethodFrame methodFrame = new MethodFrame();
+            methodFrame.acquiredConnections.addAll(acquiredConnections((MethodTree) tree));
+            methodFrames.push(methodFrame);
+        } else {
+            super.visitTree(tree);
+        }
+    }
+
+    /**
+     * leave the methods and the loops
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        if (tree.is(METHOD, CONSTRUCTOR)) {
+            methodFrames.pop();
+        } else {
+            super.leaveTree(tree);
+        }
+    }
+
+    /**
+     * the method will be triggered whenever the code writes through a
+     * statement, or changes the auto-commit mode of a connection. a write
+     * inside a loop, through a connection of the method not switched to
+     * manual commit beforehand, raises an issue.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the write or setAutoCommit method is
+     *                             invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        MethodFrame methodFrame = methodFrames.peek();
+        if (methodFrame == null) {
+            return;
+        }
+        String methodName = JdbcInvocationDispatcher.methodName(methodInvocationTree);
+        if (SET_AUTO_COMMIT_METHOD.equals(methodName)) {
+            IdentifierTree connection = MethodQueries.receiver(methodInvocationTree);
+            if (connection != null && !methodInvocationTree.arguments().isEmpty()) {
+                ExpressionTree autoCommit = methodInvocationTree.arguments().get(0);
+                if (autoCommit.is(Kind.BOOLEAN_LITERAL) && "true".equals(((LiteralTree) autoCommit).value())) {
+                    methodFrame.manualCommitConnections.remove(connection.symbol());
+                } else {
+                    methodFrame.manualCommitConnections.add(connection.symbol());
+                }
+            }
+            return;
+        }
+        Tree loop = enclosingLoop(methodInvocationTree);
+        if (loop == null) {
+            return;
+        }
+        Symbol connection = connectionOf(methodInvocationTree);
+        if (connection != null && methodFrame.acquiredConnections.contains(connection) && !methodFrame.manualCommitConnections.contains(connection)) {
+            reportIssue(methodInvocationTree,
+                    "Call \"" + connection.name() + ".setAutoCommit(false)\" before this loop and commit once, every \"" + methodName + "\" commits its own transaction.",
+                    Collections.singletonList(loopLocation(loop)), null);
+        }
+    }
+
+    /**
+     * find the connection the statement of the write was created from: the
+     * statement is a variable initialized by a factory method of the
+     * connection, or the factory method invocation itself
+     */
+    @CheckForNull
+    private Symbol connectionOf(MethodInvocationTree write) {
+        if (!write.methodSelect().is(Kind.MEMBER_SELECT)) {
+            return null;
+        }
+        ExpressionTree statement = MethodQueries.skipParentheses(((MemberSelectExpressionTree) write.methodSelect()).expression());
+        if (statement.is(Kind.IDENTIFIER)) {
+            Tree declaration = ((IdentifierTree) statement).symbol().declaration();
+            if (declaration == null || !declaration.is(Kind.VARIABLE) || ((VariableTree) declaration).initializer() == null) {
+                return null;
+            }
+            statement = MethodQueries.skipParentheses(((VariableTree) declaration).initializer());
+        }
+        if (!statement.is(Kind.METHOD_INVOCATION)) {
+            return null;
+        }
+        MethodInvocationTree factory = (MethodInvocationTree) statement;
+        if (!STATEMENT_FACTORY_METHODS.contains(JdbcInvocationDispatcher.methodName(factory))) {
+            return null;
+        }
+        IdentifierTree connection = MethodQueries.receiver(factory);
+        return connection != null ? connection.symbol() : null;
+    }
+
+    /**
+     * find the local connection variables of the method whose only value,
+     * given by their initializer or by a single assignment, is a connection
+     * acquisition
+     */
+    private Set<Symbol> acquiredConnections(MethodTree methodTree) {
+        Set<Symbol> acquired = new HashSet<>();
+        if (methodTree.block() == null) {
+            return acquired;
+        }
+        Map<Symbol, List<ExpressionTree>> values = new HashMap<>();
+        methodTree.block().accept(new BaseTreeVisitor() {
+            @Override
+            public void visitVariable(VariableTree tree) {
+                if (tree.initializer() != null) {
+                    values.computeIfAbsent(tree.symbol(), key -> new ArrayList<>()).add(tree.initializer());
+                }
+                super.visitVariable(tree);
+            }
+
+            @Override
+            public void visitAssignmentExpression(AssignmentExpressionTree tree) {
+                ExpressionTree variable = MethodQueries.skipParentheses(tree.variable());
+                if (variable.is(Kind.IDENTIFIER)) {
+                    values.computeIfAbsent(((IdentifierTree) variable).symbol(), key -> new ArrayList<>()).add(tree.expression());
+                }
+                super.visitAssignmentExpression(tree);
+            }
+
+            @Override
+            public void visitClass(ClassTree tree) {
+                // the methods of the class are visited on their own
+            }
+        });
+        values.forEach((variable, assignedValues) -> {
+            if (assignedValues.size() == 1 && variable.owner() != null && variable.owner().isMethodSymbol()
+                    && isConnectionAcquisition(assignedValues.get(0))) {
+                acquired.add(variable);
+            }
+        });
+        return acquired;
+    }
+
+    private boolean isConnectionAcquisition(ExpressionTree value) {
+        ExpressionTree expression = MethodQueries.skipParentheses(value);
+        return expression.is(Kind.METHOD_INVOCATION)
+                && CONNECTION_ACQUISITION.matches((MethodInvocationTree) expression);
+    }
+}
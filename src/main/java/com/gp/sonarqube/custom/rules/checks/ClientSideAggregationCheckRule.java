@@ -0,0 +1,239 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code fetches all the rows of a
+ * query only to count them, or to add up a numeric column. the body of the
+ * while (rs.next()) loop is made of such statements only:
+ * <p>
+ * a counter incremented by one (count++, count += 1, count = count + 1);
+ * <p>
+ * a sum of a numeric column of the ResultSet (sum += rs.getLong(...),
+ * sum = sum + rs.getLong(...), total = total.add(rs.getBigDecimal(...)));
+ * <p>
+ * an element added to a local list, the list being only asked for its size
+ * (or emptiness) afterwards.
+ * <p>
+ * the database can compute the aggregate with COUNT or SUM, and return a
+ * single row instead of the whole table.
+ */
+@Rule(key = "ClientSideAggregationCheckRule")
+public class ClientSideAggregationCheckRule extends JdbcCheck {
+    private final List<String> NUMERIC_GETTERS = ImmutableList.of(
+            "getInt", "getLong", "getShort", "getByte", "getFloat", "getDouble", "getBigDecimal");
+    private final List<String> SIZE_METHODS = ImmutableList.of("size", "isEmpty");
+    private final String ADD_METHOD = "add";
+
+    /**
+     * the aggregates computed by the body of a row loop
+     */
+    private static final class Aggregates {
+        private boolean counts;
+        private boolean sums;
+    }
+
+    /**
+     * invoke the check class whenever the parser encounters a method or
+     * constructor declaration
+     *
+     * @return source code nodes that declare a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD, CONSTRUCTOR);
+    }
+
+    /**
+     * the method will be triggered for every method declaration. every loop
+     * over the rows of a ResultSet whose body only counts or sums is
+     * reported.
+     *
+     * @param tree the ast tree of the method declaration
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        MethodQueries methodQueries = MethodQueries.scan((MethodTree) tree);
+        for (MethodQueries.RowLoop rowLoop : methodQueries.rowLoops()) {
+            Aggregates aggregates = aggregates(methodQueries, rowLoop);
+            if (aggregates == null) {
+                continue;
+            }
+            String aggregate = aggregates.counts && aggregates.sums ? "COUNT and SUM" : aggregates.counts ? "COUNT" : "SUM";
+            List<JavaFileScannerContext.Location> locations = new ArrayList<>();
+            MethodQueries.Execution execution = methodQueries.resultSets().get(rowLoop.resultSet());
+            if (execution != null) {
+                locations.add(new JavaFileScannerContext.Location("Query fetching the rows.", execution.invocation()));
+            }
+            Tree loopToken = rowLoop.loop().firstToken();
+            reportIssue(loopToken != null ? loopToken : rowLoop.loop(),
+                    "Compute this aggregate with " + aggregate + " in the query, this loop fetches every row only to "
+                            + (aggregates.sums ? "add it up" : "count it") + ".",
+                    locations, null);
+        }
+    }
+
+    /**
+     * @return the aggregates computed by the loop body, or null if the body
+     * does anything else than counting or summing
+     */
+    @CheckForNull
+    private Aggregates aggregates(MethodQueries methodQueries, MethodQueries.RowLoop rowLoop) {
+        List<StatementTree> statements = rowLoop.body().is(Kind.BLOCK)
+                ? ((BlockTree) rowLoop.body()).body() : Collections.singletonList(rowLoop.body());
+        if (statements.isEmpty()) {
+            return null;
+        }
+        Aggregates aggregates = new Aggregates();
+        for (StatementTree statement : statements) {
+            if (!statement.is(Kind.EXPRESSION_STATEMENT)) {
+                return null;
+            }
+            ExpressionTree expression = ((ExpressionStatementTree) statement).expression();
+            if (isCount(expression) || isSizedListAdd(methodQueries, expression)) {
+                aggregates.counts = true;
+            } else if (isSum(expression, rowLoop.resultSet())) {
+                aggregates.sums = true;
+            } else {
+                return null;
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * count++, ++count, count += 1 or count = count + 1
+     */
+    private boolean isCount(ExpressionTree expression) {
+        if (expression.is(Kind.POSTFIX_INCREMENT, Kind.PREFIX_INCREMENT)) {
+            return ((UnaryExpressionTree) expression).expression().is(Kind.IDENTIFIER);
+        }
+        if (expression.is(Kind.PLUS_ASSIGNMENT)) {
+            AssignmentExpressionTree assignment = (AssignmentExpressionTree) expression;
+            return assignment.variable().is(Kind.IDENTIFIER) && isOne(assignment.expression());
+        }
+        ExpressionTree increment = assignedIncrement(expression);
+        return increment != null && isOne(increment);
+    }
+
+    /**
+     * sum += rs.getLong(...), sum = sum + rs.getLong(...) or
+     * total = total.add(rs.getBigDecimal(...))
+     */
+    private boolean isSum(ExpressionTree expression, Symbol resultSet) {
+        if (expression.is(Kind.PLUS_ASSIGNMENT)) {
+            AssignmentExpressionTree assignment = (AssignmentExpressionTree) expression;
+            return assignment.variable().is(Kind.IDENTIFIER) && isNumericColumn(assignment.expression(), resultSet);
+        }
+        ExpressionTree increment = assignedIncrement(expression);
+        return increment != null && isNumericColumn(increment, resultSet);
+    }
+
+    /**
+     * @return the value added to the variable by variable = variable + value
+     * or variable = variable.add(value), or null
+     */
+    @CheckForNull
+    private ExpressionTree assignedIncrement(ExpressionTree expression) {
+        if (!expression.is(Kind.ASSIGNMENT) || !((AssignmentExpressionTree) expression).variable().is(Kind.IDENTIFIER)) {
+            return null;
+        }
+        Symbol variable = ((IdentifierTree) ((AssignmentExpressionTree) expression).variable()).symbol();
+        ExpressionTree value = MethodQueries.skipParentheses(((AssignmentExpressionTree) expression).expression());
+        if (value.is(Kind.PLUS)) {
+            BinaryExpressionTree plus = (BinaryExpressionTree) value;
+            if (isVariable(plus.leftOperand(), variable)) {
+                return plus.rightOperand();
+            }
+            return isVariable(plus.rightOperand(), variable) ? plus.leftOperand() : null;
+        }
+        if (value.is(Kind.METHOD_INVOCATION)) {
+            MethodInvocationTree add = (MethodInvocationTree) value;
+            IdentifierTree receiver = MethodQueries.receiver(add);
+            if (receiver != null && receiver.symbol().equals(variable) && ADD_METHOD.equals(JdbcInvocationDispatcher.methodName(add))
+                    && add.arguments().size() == 1) {
+                return add.arguments().get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * list.add(...), on a local list which is only asked for its size
+     */
+    private boolean isSizedListAdd(MethodQueries methodQueries, ExpressionTree expression) {
+        if (!expression.is(Kind.METHOD_INVOCATION)) {
+            return false;
+        }
+        MethodInvocationTree add = (MethodInvocationTree) expression;
+        IdentifierTree receiver = MethodQueries.receiver(add);
+        if (receiver == null || !ADD_METHOD.equals(JdbcInvocationDispatcher.methodName(add))
+                || !receiver.symbolType().isSubtypeOf(java.util.Collection.class.getCanonicalName())) {
+            return false;
+        }
+        Symbol list = receiver.symbol();
+        if (list.owner() == null || !list.owner().isMethodSymbol() || methodQueries.escapes(list)) {
+            return false;
+        }
+        boolean sized = false;
+        for (MethodInvocationTree call : methodQueries.calls(list)) {
+            String methodName = JdbcInvocationDispatcher.methodName(call);
+            if (SIZE_METHODS.contains(methodName)) {
+                sized = true;
+            } else if (!ADD_METHOD.equals(methodName)) {
+                return false;
+            }
+        }
+        return sized;
+    }
+
+    private boolean isNumericColumn(ExpressionTree expression, Symbol resultSet) {
+        ExpressionTree value = MethodQueries.skipCasts(expression);
+        if (!value.is(Kind.METHOD_INVOCATION)) {
+            return false;
+        }
+        MethodInvocationTree getter = (MethodInvocationTree) value;
+        IdentifierTree receiver = MethodQueries.receiver(getter);
+        return receiver != null && receiver.symbol().equals(resultSet)
+                && NUMERIC_GETTERS.contains(JdbcInvocationDispatcher.methodName(getter));
+    }
+
+    private static boolean isOne(ExpressionTree expression) {
+        ExpressionTree value = MethodQueries.skipCasts(expression);
+        return value.is(Kind.INT_LITERAL, Kind.LONG_LITERAL) && ((LiteralTree) value).value().matches("1[lL]?");
+    }
+
+    private static boolean isVariable(ExpressionTree expression, Symbol variable) {
+        ExpressionTree value = MethodQueries.skipParentheses(expression);
+        return value.is(Kind.IDENTIFIER) && ((IdentifierTree) value).symbol().equals(variable);
+    }
+}
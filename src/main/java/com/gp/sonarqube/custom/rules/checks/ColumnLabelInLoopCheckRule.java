@@ -0,0 +1,118 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code reads the columns of a
+ * ResultSet by label inside the loop over its rows. every getter taking a
+ * column label searches the label among the columns of the ResultSet, on
+ * every row. the column index can be resolved once with findColumn before
+ * the loop.
+ * <p>
+ * the lookups of lambdas and classes declared in the loop are not counted,
+ * as they do not run for every row.
+ */
+@Rule(key = "ColumnLabelInLoopCheckRule")
+public class ColumnLabelInLoopCheckRule extends JdbcCheck {
+    private final String STRING_CLASS = String.class.getCanonicalName();
+
+    /**
+     * invoke the check class whenever the parser encounters a method or
+     * constructor declaration
+     *
+     * @return source code nodes that declare a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD, CONSTRUCTOR);
+    }
+
+    /**
+     * the method will be triggered for every method declaration. the body of
+     * every loop over the rows of a ResultSet is searched for the getters
+     * and updaters of the ResultSet taking a column label.
+     *
+     * @param tree the ast tree of the method declaration
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        MethodQueries methodQueries = MethodQueries.scan((MethodTree) tree);
+        for (MethodQueries.RowLoop rowLoop : methodQueries.rowLoops()) {
+            LabelLookupFinder finder = new LabelLookupFinder(rowLoop.resultSet());
+            rowLoop.body().accept(finder);
+            if (finder.lookups.isEmpty()) {
+                continue;
+            }
+            List<JavaFileScannerContext.Location> locations = new ArrayList<>();
+            for (MethodInvocationTree lookup : finder.lookups) {
+                locations.add(new JavaFileScannerContext.Location("Column label lookup.", lookup));
+            }
+            int count = finder.lookups.size();
+            Tree loopToken = rowLoop.loop().firstToken();
+            reportIssue(loopToken != null ? loopToken : rowLoop.loop(),
+                    "Resolve the column " + (count == 1 ? "index" : "indexes") + " with \"" + rowLoop.resultSet().name()
+                            + ".findColumn\" before this loop, it looks up " + count + " column " + (count == 1 ? "label" : "labels") + " per row.",
+                    locations, null);
+        }
+    }
+
+    /**
+     * finds the method invocations of the ResultSet taking a column label as
+     * first argument
+     */
+    private final class LabelLookupFinder extends BaseTreeVisitor {
+        private final Symbol resultSet;
+        private final List<MethodInvocationTree> lookups = new ArrayList<>();
+
+        private LabelLookupFinder(Symbol resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree tree) {
+            IdentifierTree receiver = MethodQueries.receiver(tree);
+            if (receiver != null && receiver.symbol().equals(resultSet) && isLabelLookup(tree)) {
+                lookups.add(tree);
+            }
+            super.visitMethodInvocation(tree);
+        }
+
+        private boolean isLabelLookup(MethodInvocationTree tree) {
+            String methodName = JdbcInvocationDispatcher.methodName(tree);
+            return (methodName.startsWith("get") || methodName.startsWith("update"))
+                    && !tree.arguments().isEmpty()
+                    && tree.arguments().get(0).symbolType().is(STRING_CLASS);
+        }
+
+        @Override
+        public void visitLambdaExpression(LambdaExpressionTree tree) {
+            // the lambda may not run for every row
+        }
+
+        @Override
+        public void visitClass(ClassTree tree) {
+            // the methods of the class may not run for every row
+        }
+    }
+}
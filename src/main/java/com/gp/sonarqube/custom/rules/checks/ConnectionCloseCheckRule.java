@@ -1,17 +1,8 @@
 package com.gp.sonarqube.custom.rules.checks;
 
-import static com.google.common.collect.ImmutableList.of;
-import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
-
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
 import org.sonar.check.Rule;
-import org.sonar.java.matcher.MethodMatcher;
-import org.sonar.java.matcher.MethodMatcherCollection;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
-import org.sonar.plugins.java.api.tree.Tree;
-import org.sonar.plugins.java.api.tree.Tree.Kind;
-
-import java.util.List;
 
 /**
  * @author GP
@@ -20,43 +11,34 @@ import java.util.List;
  * close method
  */
 @Rule(key = "ConnectionCloseCheckRule")
-public class ConnectionCloseCheckRule extends IssuableSubscriptionVisitor {
+public class ConnectionCloseCheckRule extends JdbcInvocationCheck {
     private final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
     private final String CLOSE_METHOD = "close";
 
     /**
-     * defining the method matcher collection with Connection class and
-     * close method
+     * defining the method table with Connection class and close method
      */
-    private final MethodMatcherCollection CONNECTION_CLOSE = MethodMatcherCollection.create(new MethodMatcher[]{
-            MethodMatcher.create().typeDefinition(CONNECTION_CLASS).name(CLOSE_METHOD).withoutParameter()
-    });
+    private final JdbcMethodTable CONNECTION_CLOSE = JdbcMethodTable.builder()
+            .add(CONNECTION_CLASS, CLOSE_METHOD, 0)
+            .build();
 
     /**
-     * invoke the check class whenever the parser encounters any statement
-     * in the source code that invokes a method
-     *
-     * @return source code nodes that invoke a method
+     * @return the method table with the sql Connection close method
      */
     @Override
-    public List<Kind> nodesToVisit() {
-        return of(METHOD_INVOCATION);
+    protected JdbcMethodTable methodTable() {
+        return CONNECTION_CLOSE;
     }
 
     /**
-     * the method will be triggered whenever the code has met the criteria
-     * of what the nodesToVisit defines. in this case, the visitNode gets
-     * invoked for all method invocation. the check done by the below method
-     * is to see if the method invocation is the sql Connection close. if
-     * so, then raise an issue.
+     * the method will be triggered whenever the code invokes the sql
+     * Connection close method. if so, then raise an issue.
      *
-     * @param tree the ast tree of the source code whenever the method
-     *             invocation happens
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the sql Connection close method is invoked
      */
     @Override
-    public void visitNode(Tree tree) {
-        MethodInvocationTree methodInvocationTree = MethodInvocationTree.class.cast(tree);
-        if (CONNECTION_CLOSE.anyMatch(methodInvocationTree))
-            reportIssue(tree, "Do not invoke the java.sql.Connection#close() method.");
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        reportIssue(methodInvocationTree, "Do not invoke the java.sql.Connection#close() method.");
     }
 }
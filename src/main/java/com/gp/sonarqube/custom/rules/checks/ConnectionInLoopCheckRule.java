@@ -0,0 +1,61 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import java.util.Collections;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code acquires a database
+ * connection once per iteration of a loop, of a lambda (or anonymous class)
+ * passed to a per element method such as forEach or map, or of a per row
+ * callback. every DataSource#getConnection call is a round trip to the pool,
+ * and every DriverManager#getConnection call opens a physical connection.
+ */
+@Rule(key = "ConnectionInLoopCheckRule")
+public class ConnectionInLoopCheckRule extends LoopTrackingCheck {
+    private final String DATA_SOURCE_CLASS = javax.sql.DataSource.class.getCanonicalName();
+    private final String DRIVER_MANAGER_CLASS = java.sql.DriverManager.class.getCanonicalName();
+    private final String GET_CONNECTION_METHOD = "getConnection";
+
+    /**
+     * defining the method table with the getConnection methods of the
+     * DataSource and DriverManager classes
+     */
+    private final JdbcMethodTable CONNECTION_ACQUISITION = JdbcMethodTable.builder()
+            .addSubtypes(DATA_SOURCE_CLASS, GET_CONNECTION_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .add(DRIVER_MANAGER_CLASS, GET_CONNECTION_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    /**
+     * @return the method table with the connection acquisition methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return CONNECTION_ACQUISITION;
+    }
+
+    /**
+     * the method will be triggered whenever the code acquires a connection.
+     * an issue is raised if the connection is acquired inside a loop.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the getConnection method is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        Tree loop = enclosingLoop(methodInvocationTree);
+        if (loop != null) {
+            String cost = methodInvocationTree.symbol().owner().type().is(DRIVER_MANAGER_CLASS)
+                    ? "opens one physical connection per iteration" : "goes through the connection pool once per iteration";
+            reportIssue(methodInvocationTree,
+                    "Acquire the connection once before the loop, this \"" + JdbcInvocationDispatcher.methodName(methodInvocationTree) + "\" call " + cost + ".",
+                    Collections.singletonList(loopLocation(loop)), null);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.IssueCache;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.RuleInstrumentation;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author GP
+ * <p>
+ * base class of all the checks of the plugin. the node visits are wrapped to
+ * record the time spent, the nodes visited and the issues raised by the check
+ * in the RuleInstrumentation, when the instrumentation is enabled. the check
+ * logic goes in visitTree and leaveTree.
+ * <p>
+ * when the IssueCache is enabled, the issues raised on a file are recorded,
+ * and replayed without running the check logic when the same file content is
+ * analysed again. every way of raising an issue goes through this class: the
+ * issues on a line or on the file, which can not be replayed on a tree, keep
+ * the file out of the cache.
+ */
+public abstract class JdbcCheck extends IssuableSubscriptionVisitor {
+    private String ruleKey;
+    private String ruleParameters;
+    private boolean instrumented;
+    private long fileNanos;
+    private long fileNodes;
+    private long fileIssues;
+
+    private String cacheKey;
+    private boolean replayed;
+    private boolean cacheable;
+    private final List<IssueCache.CachedIssue> fileCachedIssues = new ArrayList<>();
+
+    /**
+     * the check logic, triggered for every node of the kinds the check
+     * subscribes to
+     *
+     * @param tree the ast tree of the source code
+     */
+    protected void visitTree(Tree tree) {
+    }
+
+    /**
+     * the check logic, triggered once all the children of the node are
+     * visited
+     *
+     * @param tree the ast tree of the source code
+     */
+    protected void leaveTree(Tree tree) {
+    }
+
+    /**
+     * reset the counters of the file and replay the cached issues if the
+     * file content was already analysed by the check, or scan the file. once
+     * scanned, the issues raised on the file are cached, the dispatcher is
+     * cleared, and the counters of the file are handed over to the
+     * RuleInstrumentation.
+     *
+     * @param context the context of the analysed file
+     */
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+        this.context = context;
+        instrumented = RuleInstrumentation.isEnabled();
+        fileNanos = 0;
+        fileNodes = 0;
+        fileIssues = 0;
+        cacheKey = null;
+        replayed = false;
+        cacheable = true;
+        fileCachedIssues.clear();
+        Tree scannedTree = context.getTree();
+        if (IssueCache.isEnabled() && scannedTree != null) {
+            cacheKey = IssueCache.key(ruleKey(), ruleParameters(), context.getFileContent());
+            List<IssueCache.CachedIssue> cachedIssues = IssueCache.get(cacheKey);
+            if (cachedIssues != null) {
+                replay(scannedTree, cachedIssues);
+            }
+        }
+        if (!replayed) {
+            try {
+                super.scanFile(context);
+            } finally {
+                JdbcInvocationDispatcher.clear();
+            }
+        }
+        if (cacheKey != null && !replayed && cacheable) {
+            IssueCache.put(cacheKey, fileCachedIssues);
+        }
+        if (instrumented) {
+            RuleInstrumentation.record(ruleKey(), context.getFile().getPath(), fileNanos, fileNodes, fileIssues);
+        }
+    }
+
+    private void replay(Tree scannedTree, List<IssueCache.CachedIssue> cachedIssues) {
+        Map<IssueCache.Span, Tree> trees = IssueCache.resolve(scannedTree, cachedIssues);
+        if (trees == null) {
+            IssueCache.remove(cacheKey);
+            return;
+        }
+        replayed = true;
+        for (IssueCache.CachedIssue cachedIssue : cachedIssues) {
+            List<JavaFileScannerContext.Location> flow = new ArrayList<>();
+            for (IssueCache.Span secondary : cachedIssue.secondaries) {
+                flow.add(new JavaFileScannerContext.Location(secondary.message, trees.get(secondary)));
+            }
+            reportIssue(trees.get(cachedIssue.primary), cachedIssue.message, flow, cachedIssue.cost);
+        }
+    }
+
+    /**
+     * call the check logic, timed when the instrumentation is enabled
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    public final void visitNode(Tree tree) {
+        if (replayed) {
+            return;
+        }
+        if (!instrumented) {
+            visitTree(tree);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            visitTree(tree);
+        } finally {
+            fileNanos += System.nanoTime() - start;
+            fileNodes++;
+        }
+    }
+
+    /**
+     * call the check logic, timed when the instrumentation is enabled
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    public final void leaveNode(Tree tree) {
+        if (replayed) {
+            return;
+        }
+        if (!instrumented) {
+            leaveTree(tree);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            leaveTree(tree);
+        } finally {
+            fileNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * count the issue and report it
+     *
+     * @param tree    the tree the issue is raised on
+     * @param message the issue message
+     */
+    @Override
+    public void reportIssue(Tree tree, String message) {
+        fileIssues++;
+        record(tree, message, new ArrayList<>(), null);
+        super.reportIssue(tree, message);
+    }
+
+    /**
+     * count the issue and report it
+     *
+     * @param tree    the tree the issue is raised on
+     * @param message the issue message
+     * @param flow    the secondary locations of the issue
+     * @param cost    the remediation cost, or null for the default one
+     */
+    @Override
+    public void reportIssue(Tree tree, String message, List<JavaFileScannerContext.Location> flow, @Nullable Integer cost) {
+        fileIssues++;
+        record(tree, message, flow, cost);
+        super.reportIssue(tree, message, flow, cost);
+    }
+
+    /**
+     * count the issue and report it. the file is not cached, as the issue is
+     * not raised on a single tree.
+     *
+     * @param startTree the tree the issue starts on
+     * @param endTree   the tree the issue ends on
+     * @param message   the issue message
+     */
+    @Override
+    public void reportIssue(Tree startTree, Tree endTree, String message) {
+        fileIssues++;
+        cacheable = false;
+        super.reportIssue(startTree, endTree, message);
+    }
+
+    /**
+     * count the issue and report it. the file is not cached, as the issue is
+     * not raised on a tree.
+     *
+     * @param line    the line the issue is raised on
+     * @param message the issue message
+     */
+    @Override
+    public void addIssue(int line, String message) {
+        fileIssues++;
+        cacheable = false;
+        super.addIssue(line, message);
+    }
+
+    /**
+     * count the issue and report it. the file is not cached, as the issue is
+     * not raised on a tree.
+     *
+     * @param message the issue message
+     */
+    @Override
+    public void addIssueOnFile(String message) {
+        fileIssues++;
+        cacheable = false;
+        super.addIssueOnFile(message);
+    }
+
+    /**
+     * keep the issue for the cache, as long as all its locations have a
+     * position
+     */
+    private void record(Tree tree, String message, List<JavaFileScannerContext.Location> flow, @Nullable Integer cost) {
+        if (cacheKey == null || replayed || !cacheable) {
+            return;
+        }
+        IssueCache.CachedIssue cachedIssue = new IssueCache.CachedIssue();
+        cachedIssue.primary = IssueCache.Span.of(tree, null);
+        cachedIssue.message = message;
+        cachedIssue.cost = cost;
+        cacheable = cachedIssue.primary != null;
+        for (JavaFileScannerContext.Location location : flow) {
+            IssueCache.Span secondary = IssueCache.Span.of(location.syntaxNode, location.msg);
+            cacheable &= secondary != null;
+            cachedIssue.secondaries.add(secondary);
+        }
+        fileCachedIssues.add(cachedIssue);
+    }
+
+    private String ruleKey() {
+        if (ruleKey == null) {
+            Rule rule = getClass().getAnnotation(Rule.class);
+            ruleKey = rule != null ? rule.key() : getClass().getSimpleName();
+        }
+        return ruleKey;
+    }
+
+    /**
+     * the values of the rule properties of the check, part of the cache key
+     * as they change the issues raised
+     */
+    private String ruleParameters() {
+        if (ruleParameters == null) {
+            StringBuilder parameters = new StringBuilder();
+            for (Class<?> type = getClass(); type != null; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    RuleProperty ruleProperty = field.getAnnotation(RuleProperty.class);
+                    if (ruleProperty != null) {
+                        field.setAccessible(true);
+                        try {
+                            parameters.append(ruleProperty.key()).append('=').append(field.get(this)).append(';');
+                        } catch (IllegalAccessException illegalAccessException) {
+                            throw new IllegalStateException("Failed to read the rule property " + ruleProperty.key(), illegalAccessException);
+                        }
+                    }
+                }
+            }
+            ruleParameters = parameters.toString();
+        }
+        return ruleParameters;
+    }
+}
@@ -0,0 +1,104 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.base.Splitter;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
+
+/**
+ * @author GP
+ * <p>
+ * base class of the checks interested in jdbc method invocations. the method
+ * invocation is handed over to the shared JdbcInvocationDispatcher, and the
+ * check logic is called only for the invocations matching the method table
+ * of the check.
+ * <p>
+ * the method table of every check can be extended with the rule properties
+ * additionalOwnerTypes and additionalMethodNames, to cover wrappers of the
+ * jdbc types, such as pooled proxies or spring JdbcTemplate. the extended
+ * table is compiled once, at the first method invocation of the analysis.
+ * the properties are declared once, here: both the rule definition and the
+ * scanner read the rule properties of the superclasses of a check.
+ */
+public abstract class JdbcInvocationCheck extends JdbcCheck {
+    private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    @RuleProperty(
+            key = "additionalOwnerTypes",
+            description = "Comma separated fully qualified names of the types (and their subtypes) to check like the JDBC types of the rule, with the same method names.")
+    public String additionalOwnerTypes = "";
+
+    @RuleProperty(
+            key = "additionalMethodNames",
+            description = "Comma separated names of the methods to check like the JDBC methods of the rule, on the JDBC types of the rule and the additional owner types.")
+    public String additionalMethodNames = "";
+
+    private JdbcMethodTable compiledMethodTable;
+
+    /**
+     * the method signatures the check is interested in. the table is built
+     * once per check instance.
+     *
+     * @return the method table of the check
+     */
+    protected abstract JdbcMethodTable methodTable();
+
+    /**
+     * the check logic, triggered only for the method invocations matching
+     * the method table of the check.
+     *
+     * @param methodInvocationTree the matching method invocation
+     */
+    protected abstract void visitJdbcInvocation(MethodInvocationTree methodInvocationTree);
+
+    /**
+     * invoke the check class whenever the parser encounters any statement
+     * in the source code that invokes a method
+     *
+     * @return source code nodes that invoke a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD_INVOCATION);
+    }
+
+    /**
+     * dispatch the method invocation. the method name is compared against
+     * the method table first, and the symbol is resolved (once for all the
+     * checks) only when the name is known by the table. the nodes of the
+     * other kinds a sub class subscribes to are left to the sub class.
+     *
+     * @param tree the ast tree of the source code whenever the method
+     *             invocation happens
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (!tree.is(METHOD_INVOCATION)) {
+            return;
+        }
+        JdbcInvocationDispatcher.Invocation invocation = JdbcInvocationDispatcher.dispatch((MethodInvocationTree) tree);
+        if (compiledMethodTable().matches(invocation)) {
+            visitJdbcInvocation(invocation.tree());
+        }
+    }
+
+    /**
+     * the method table of the check, extended with the additional owner types
+     * and method names of the rule properties
+     */
+    private JdbcMethodTable compiledMethodTable() {
+        if (compiledMethodTable == null) {
+            compiledMethodTable = methodTable().extend(
+                    LIST_SPLITTER.splitToList(additionalOwnerTypes), LIST_SPLITTER.splitToList(additionalMethodNames));
+        }
+        return compiledMethodTable;
+    }
+}
@@ -0,0 +1,130 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.ConstantFolder;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.regex.Pattern;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code reads a large object (BLOB
+ * or CLOB) into the heap at once, instead of streaming it. two forms are
+ * reported:
+ * <p>
+ * the Blob#getBytes and Clob#getSubString calls reading the whole object,
+ * their length argument being the length() of a Blob or Clob (or
+ * Integer.MAX_VALUE);
+ * <p>
+ * the ResultSet#getBytes, getString and getNString calls given a constant
+ * column label matching the lobColumnPattern rule property, the type of the
+ * column being unknown to the analysis.
+ */
+@Rule(key = "LobMaterializationCheckRule")
+public class LobMaterializationCheckRule extends JdbcInvocationCheck {
+    private final String RESULT_SET_CLASS = java.sql.ResultSet.class.getCanonicalName();
+    private final String BLOB_CLASS = java.sql.Blob.class.getCanonicalName();
+    private final String CLOB_CLASS = java.sql.Clob.class.getCanonicalName();
+    private final String GET_BYTES_METHOD = "getBytes";
+    private final String GET_SUB_STRING_METHOD = "getSubString";
+    private final String LENGTH_METHOD = "length";
+    private static final String DEFAULT_LOB_COLUMN_PATTERN = ".*(blob|clob|lob)";
+
+    @RuleProperty(
+            key = "lobColumnPattern",
+            description = "Regular expression matched, case insensitively, against the constant column labels given to ResultSet#getBytes, getString and getNString, to recognise the BLOB and CLOB columns.",
+            defaultValue = DEFAULT_LOB_COLUMN_PATTERN)
+    public String lobColumnPattern = DEFAULT_LOB_COLUMN_PATTERN;
+
+    private Pattern compiledLobColumnPattern;
+
+    /**
+     * defining the method table with the getters of the ResultSet class
+     * returning a whole column value, and the methods of the Blob and Clob
+     * classes returning their content
+     */
+    private final JdbcMethodTable LOB_READ = JdbcMethodTable.builder()
+            .addSubtypes(RESULT_SET_CLASS, GET_BYTES_METHOD, 1)
+            .addSubtypes(RESULT_SET_CLASS, "getString", 1)
+            .addSubtypes(RESULT_SET_CLASS, "getNString", 1)
+            .addSubtypes(BLOB_CLASS, GET_BYTES_METHOD, 2)
+            .addSubtypes(CLOB_CLASS, GET_SUB_STRING_METHOD, 2)
+            .build();
+
+    /**
+     * @return the method table with the methods reading a large object
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return LOB_READ;
+    }
+
+    /**
+     * the method will be triggered whenever the code reads a column value, or
+     * the content of a Blob or Clob. an issue is raised when the whole large
+     * object is read into the heap.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the read method is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        if (methodInvocationTree.arguments().isEmpty()) {
+            return;
+        }
+        String methodName = JdbcInvocationDispatcher.methodName(methodInvocationTree);
+        String stream = GET_BYTES_METHOD.equals(methodName) ? "getBinaryStream" : "getCharacterStream";
+        if (methodInvocationTree.arguments().size() == 2) {
+            if (isWholeLength(methodInvocationTree.arguments().get(1))) {
+                reportIssue(methodInvocationTree,
+                        "Read the large object with \"" + stream + "\" instead, this \"" + methodName + "\" call loads its whole content into the heap.");
+            }
+            return;
+        }
+        String label = ConstantFolder.stringValue(methodInvocationTree.arguments().get(0));
+        if (label != null && methodInvocationTree.arguments().get(0).symbolType().is(String.class.getCanonicalName())
+                && lobColumnPattern().matcher(label).matches()) {
+            reportIssue(methodInvocationTree,
+                    "Read the \"" + label + "\" large object column with \"" + stream + "\" instead, this \"" + methodName + "\" call loads its whole content into the heap.");
+        }
+    }
+
+    /**
+     * check if the length given to Blob#getBytes or Clob#getSubString covers
+     * the whole object
+     */
+    private boolean isWholeLength(ExpressionTree length) {
+        ExpressionTree expression = MethodQueries.skipCasts(length);
+        if (expression.is(Kind.METHOD_INVOCATION)) {
+            MethodInvocationTree invocation = (MethodInvocationTree) expression;
+            if (!LENGTH_METHOD.equals(JdbcInvocationDispatcher.methodName(invocation)) || !invocation.arguments().isEmpty()
+                    || !invocation.methodSelect().is(Kind.MEMBER_SELECT)) {
+                return false;
+            }
+            ExpressionTree lob = ((MemberSelectExpressionTree) invocation.methodSelect()).expression();
+            return lob.symbolType().isSubtypeOf(BLOB_CLASS) || lob.symbolType().isSubtypeOf(CLOB_CLASS);
+        }
+        if (expression.is(Kind.MEMBER_SELECT)) {
+            MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) expression;
+            IdentifierTree identifier = memberSelect.identifier();
+            return "MAX_VALUE".equals(identifier.name()) && memberSelect.expression().symbolType().is(Integer.class.getCanonicalName());
+        }
+        return false;
+    }
+
+    private Pattern lobColumnPattern() {
+        if (compiledLobColumnPattern == null) {
+            compiledLobColumnPattern = Pattern.compile(lobColumnPattern, Pattern.CASE_INSENSITIVE);
+        }
+        return compiledLobColumnPattern;
+    }
+}
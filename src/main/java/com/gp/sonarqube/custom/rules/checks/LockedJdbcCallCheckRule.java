@@ -0,0 +1,300 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.LoopContext;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.IfStatementTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Modifier;
+import org.sonar.plugins.java.api.tree.ModifierKeywordTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.SynchronizedStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.IF_STATEMENT;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.LAMBDA_EXPRESSION;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.SYNCHRONIZED_STATEMENT;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code runs a database round trip
+ * while holding a lock: inside a synchronized method or block, or between
+ * the lock() and unlock() calls of a java.util.concurrent.locks.Lock. every
+ * thread waiting for the lock then waits for the database too.
+ * <p>
+ * the lock sections are tracked lexically, per method. a lock is identified
+ * by the text of the expression it is called on, and is held from its
+ * lock(), lockInterruptibly() or tryLock() call to the next unlock() call on
+ * the same expression. a tryLock() call being the condition of an if
+ * statement holds the lock in the then branch only (in the other branches
+ * only, when the condition is negated). the body of a lambda does not run
+ * under the lock of its enclosing method.
+ */
+@Rule(key = "LockedJdbcCallCheckRule")
+public class LockedJdbcCallCheckRule extends JdbcInvocationCheck {
+    private final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private final String LOCK_CLASS = java.util.concurrent.locks.Lock.class.getCanonicalName();
+    private final List<String> LOCK_METHODS = ImmutableList.of("lock", "lockInterruptibly", "tryLock");
+    private final String UNLOCK_METHOD = "unlock";
+    private final String TRY_LOCK_METHOD = "tryLock";
+
+    /**
+     * defining the method table with the methods of the Statement and
+     * Connection classes doing a database round trip
+     */
+    private final JdbcMethodTable DATABASE_ROUND_TRIP = JdbcMethodTable.builder()
+            .addSubtypes(STATEMENT_CLASS, "executeQuery", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeUpdate", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeLargeUpdate", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "execute", JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, "executeBatch", 0)
+            .addSubtypes(STATEMENT_CLASS, "executeLargeBatch", 0)
+            .addSubtypes(CONNECTION_CLASS, "commit", 0)
+            .addSubtypes(CONNECTION_CLASS, "rollback", JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Deque<LockFrame> lockFrames = new ArrayDeque<>();
+
+    /**
+     * the locks held at the visited node of a method (or lambda body)
+     */
+    private static final class LockFrame {
+        private final Tree tree;
+        private final Tree synchronizedMethod;
+        private final Deque<Tree> synchronizedBlocks = new ArrayDeque<>();
+        private final Map<String, HeldLock> heldLocks = new LinkedHashMap<>();
+        private final Map<Tree, IfStatementTree> tryLockConditions = new IdentityHashMap<>();
+
+        private LockFrame(Tree tree, @CheckForNull Tree synchronizedMethod) {
+            this.tree = tree;
+            this.synchronizedMethod = synchronizedMethod;
+        }
+
+        /**
+         * @param tree the tree being visited
+         * @return the innermost lock held at the tree, or null if no lock is
+         * held
+         */
+        @CheckForNull
+        private JavaFileScannerContext.Location heldLock(Tree tree) {
+            if (!synchronizedBlocks.isEmpty()) {
+                return new JavaFileScannerContext.Location("Synchronized block.", synchronizedBlocks.peek());
+            }
+            Tree lock = null;
+            for (HeldLock heldLock : heldLocks.values()) {
+                if (heldLock.isHeldAt(tree)) {
+                    lock = heldLock.lockCall;
+                }
+            }
+            if (lock != null) {
+                return new JavaFileScannerContext.Location("Lock acquired.", lock);
+            }
+            if (synchronizedMethod != null) {
+                return new JavaFileScannerContext.Location("Synchronized method.", synchronizedMethod);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * a lock acquired by a lock call. a lock acquired by the tryLock()
+     * condition of an if statement is held in the then branch of the if
+     * statement, or outside of it when the condition is negated.
+     */
+    private static final class HeldLock {
+        private final Tree lockCall;
+        private final Tree thenStatement;
+        private final boolean negated;
+
+        private HeldLock(Tree lockCall, @CheckForNull Tree thenStatement, boolean negated) {
+            this.lockCall = lockCall;
+            this.thenStatement = thenStatement;
+            this.negated = negated;
+        }
+
+        private boolean isHeldAt(Tree tree) {
+            return thenStatement == null || LoopContext.contains(thenStatement, tree) != negated;
+        }
+    }
+
+    /**
+     * @return the method table with the database round trip methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return DATABASE_ROUND_TRIP;
+    }
+
+    /**
+     * on top of the method invocations, the check visits the methods,
+     * lambdas, synchronized blocks and if statements to know the locks held
+     *
+     * @return source code nodes that invoke a method, declare a method or a
+     * lambda, synchronize a block, or branch on a condition
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return ImmutableList.of(METHOD_INVOCATION, METHOD, CONSTRUCTOR, LAMBDA_EXPRESSION, SYNCHRONIZED_STATEMENT, IF_STATEMENT);
+    }
+
+    /**
+     * enter the methods, lambdas and synchronized blocks, note the tryLock()
+     * conditions of the if statements, follow the lock and unlock calls, and
+     * let the base class dispatch the method invocations
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(METHOD, CONSTRUCTOR)) {
+            MethodTree methodTree = (MethodTree) tree;
+            lockFrames.push(new LockFrame(tree, isSynchronized(methodTree) ? methodTree.simpleName() : null));
+        } else if (tree.is(LAMBDA_EXPRESSION)) {
+            lockFrames.push(new LockFrame(tree, null));
+        } else if (tree.is(SYNCHRONIZED_STATEMENT)) {
+            if (!lockFrames.isEmpty()) {
+                lockFrames.peek().synchronizedBlocks.push(((SynchronizedStatementTree) tree).synchronizedKeyword());
+            }
+        } else if (tree.is(IF_STATEMENT)) {
+            visitIfStatement((IfStatementTree) tree);
+        } else {
+            visitLockCall((MethodInvocationTree) tree);
+            super.visitTree(tree);
+        }
+    }
+
+    /**
+     * leave the methods, lambdas and synchronized blocks
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        if (tree.is(METHOD, CONSTRUCTOR, LAMBDA_EXPRESSION)) {
+            if (!lockFrames.isEmpty() && lockFrames.peek().tree == tree) {
+                lockFrames.pop();
+            }
+        } else if (tree.is(SYNCHRONIZED_STATEMENT) && !lockFrames.isEmpty() && !lockFrames.peek().synchronizedBlocks.isEmpty()) {
+            lockFrames.peek().synchronizedBlocks.pop();
+        }
+    }
+
+    /**
+     * the method will be triggered whenever the code does a database round
+     * trip. an issue is raised if a lock is held at this point.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the round trip method is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        LockFrame lockFrame = lockFrames.peek();
+        JavaFileScannerContext.Location heldLock = lockFrame != null ? lockFrame.heldLock(methodInvocationTree) : null;
+        if (heldLock != null) {
+            reportIssue(methodInvocationTree,
+                    "Move this \"" + JdbcInvocationDispatcher.methodName(methodInvocationTree) + "\" call out of the locked section, every thread waiting for the lock also waits for this database round trip.",
+                    Collections.singletonList(heldLock), null);
+        }
+    }
+
+    /**
+     * note the tryLock() call being the condition, possibly negated, of the
+     * if statement, for the lock to be held in its then branch only
+     */
+    private void visitIfStatement(IfStatementTree ifStatementTree) {
+        LockFrame lockFrame = lockFrames.peek();
+        if (lockFrame == null) {
+            return;
+        }
+        ExpressionTree condition = MethodQueries.skipParentheses(ifStatementTree.condition());
+        if (condition.is(Kind.LOGICAL_COMPLEMENT)) {
+            condition = MethodQueries.skipParentheses(((UnaryExpressionTree) condition).expression());
+        }
+        if (condition.is(METHOD_INVOCATION) && TRY_LOCK_METHOD.equals(JdbcInvocationDispatcher.methodName((MethodInvocationTree) condition))) {
+            lockFrame.tryLockConditions.put(condition, ifStatementTree);
+        }
+    }
+
+    /**
+     * follow the lock and unlock calls of the Lock instances
+     */
+    private void visitLockCall(MethodInvocationTree methodInvocationTree) {
+        LockFrame lockFrame = lockFrames.peek();
+        String methodName = JdbcInvocationDispatcher.methodName(methodInvocationTree);
+        if (lockFrame == null || !(UNLOCK_METHOD.equals(methodName) || LOCK_METHODS.contains(methodName))
+                || !methodInvocationTree.methodSelect().is(Kind.MEMBER_SELECT)) {
+            return;
+        }
+        ExpressionTree lock = ((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression();
+        String lockKey = lockKey(lock);
+        if (lockKey == null || !lock.symbolType().isSubtypeOf(LOCK_CLASS)) {
+            return;
+        }
+        IfStatementTree ifStatementTree = lockFrame.tryLockConditions.remove(methodInvocationTree);
+        if (UNLOCK_METHOD.equals(methodName)) {
+            lockFrame.heldLocks.remove(lockKey);
+        } else if (ifStatementTree != null) {
+            boolean negated = MethodQueries.skipParentheses(ifStatementTree.condition()).is(Kind.LOGICAL_COMPLEMENT);
+            lockFrame.heldLocks.put(lockKey, new HeldLock(methodInvocationTree, ifStatementTree.thenStatement(), negated));
+        } else {
+            lockFrame.heldLocks.put(lockKey, new HeldLock(methodInvocationTree, null, false));
+        }
+    }
+
+    /**
+     * @return the text identifying the lock expression, or null if the
+     * expression is not made of names and argument-less calls only
+     */
+    @CheckForNull
+    private static String lockKey(ExpressionTree expression) {
+        switch (expression.kind()) {
+            case IDENTIFIER:
+                return ((IdentifierTree) expression).name();
+            case MEMBER_SELECT:
+                MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) expression;
+                String owner = lockKey(memberSelect.expression());
+                return owner == null ? null : owner + "." + memberSelect.identifier().name();
+            case METHOD_INVOCATION:
+                MethodInvocationTree invocation = (MethodInvocationTree) expression;
+                String method = lockKey(invocation.methodSelect());
+                return method == null || !invocation.arguments().isEmpty() ? null : method + "()";
+            case PARENTHESIZED_EXPRESSION:
+                return lockKey(((ParenthesizedTree) expression).expression());
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isSynchronized(MethodTree methodTree) {
+        for (ModifierKeywordTree modifier : methodTree.modifiers().modifiers()) {
+            if (modifier.modifier() == Modifier.SYNCHRONIZED) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
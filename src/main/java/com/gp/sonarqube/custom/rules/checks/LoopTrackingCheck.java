@@ -0,0 +1,93 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.LoopContext;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import javax.annotation.CheckForNull;
+import java.util.List;
+
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
+
+/**
+ * @author GP
+ * <p>
+ * base class of the jdbc checks interested in the invocations done once per
+ * iteration of a loop. the loops (and the lambdas passed to per element
+ * methods) are tracked while the tree is walked, so that the check logic can
+ * ask for the loop enclosing a matching method invocation.
+ */
+public abstract class LoopTrackingCheck extends JdbcInvocationCheck {
+    private final LoopContext loopContext = new LoopContext();
+
+    /**
+     * invoke the check class whenever the parser encounters a method
+     * invocation or a loop
+     *
+     * @return source code nodes that invoke a method or loop
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return ImmutableList.<Kind>builder().add(METHOD_INVOCATION).addAll(LoopContext.LOOP_KINDS).build();
+    }
+
+    /**
+     * enter the loops, and dispatch the method invocations
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(METHOD_INVOCATION)) {
+            loopContext.visitInvocation((MethodInvocationTree) tree);
+        } else if (LoopContext.LOOP_KINDS.contains(tree.kind())) {
+            loopContext.enter(tree);
+        }
+        super.visitTree(tree);
+    }
+
+    /**
+     * leave the loops
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        if (LoopContext.LOOP_KINDS.contains(tree.kind())) {
+            loopContext.leave(tree);
+        }
+    }
+
+    /**
+     * find the innermost loop executing the given tree once per iteration
+     *
+     * @param tree the tree being visited
+     * @return the loop tree, or null if the tree is not executed per iteration
+     */
+    @CheckForNull
+    protected Tree enclosingLoop(Tree tree) {
+        return loopContext.enclosingLoop(tree);
+    }
+
+    /**
+     * @return true if the visited node is inside at least one loop
+     */
+    protected boolean insideLoop() {
+        return !loopContext.isEmpty();
+    }
+
+    /**
+     * the secondary location pointing at the loop, to give along with the
+     * reported issue
+     *
+     * @param loop the loop tree
+     * @return the location of the first token of the loop
+     */
+    protected static JavaFileScannerContext.Location loopLocation(Tree loop) {
+        Tree token = loop.firstToken();
+        return new JavaFileScannerContext.Location("Enclosing loop.", token != null ? token : loop);
+    }
+}
@@ -0,0 +1,208 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.LoopContext;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code runs the same sql
+ * PreparedStatement update once per iteration of a loop, instead of adding
+ * the rows to a batch with addBatch and running the batch once with
+ * executeBatch. PreparedStatement#execute() is left to QueryInLoopCheckRule,
+ * as it may run a query or a stored procedure which can not be batched.
+ */
+@Rule(key = "MissingBatchCheckRule")
+public class MissingBatchCheckRule extends LoopTrackingCheck {
+    private static final int DEFAULT_MINIMUM_LOOP_SIZE = 10;
+    private static final int UNKNOWN_LOOP_SIZE = -1;
+
+    private final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private final String PREPARED_STATEMENT_CLASS = java.sql.PreparedStatement.class.getCanonicalName();
+    private final String EXECUTE_UPDATE_METHOD = "executeUpdate";
+    private final String EXECUTE_LARGE_UPDATE_METHOD = "executeLargeUpdate";
+    private final String ADD_BATCH_METHOD = "addBatch";
+
+    /**
+     * loops with a number of iterations known at compile time, and lower
+     * than this value, are not reported
+     */
+    @RuleProperty(
+            key = "minimumLoopSize",
+            description = "Minimum number of iterations of a loop with a constant bound to report its updates. Loops without a constant bound are always reported.",
+            defaultValue = "" + DEFAULT_MINIMUM_LOOP_SIZE)
+    public int minimumLoopSize = DEFAULT_MINIMUM_LOOP_SIZE;
+
+    /**
+     * defining the method table with the update methods of the
+     * PreparedStatement class, and the addBatch method of the Statement class
+     */
+    private final JdbcMethodTable PREPARED_STATEMENT_UPDATE = JdbcMethodTable.builder()
+            .addSubtypes(PREPARED_STATEMENT_CLASS, EXECUTE_UPDATE_METHOD, 0)
+            .addSubtypes(PREPARED_STATEMENT_CLASS, EXECUTE_LARGE_UPDATE_METHOD, 0)
+            .addSubtypes(STATEMENT_CLASS, ADD_BATCH_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Map<Tree, List<MethodInvocationTree>> loopUpdates = new IdentityHashMap<>();
+    private final Map<Tree, Set<Symbol>> loopBatches = new IdentityHashMap<>();
+
+    /**
+     * @return the method table with the sql PreparedStatement update methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return PREPARED_STATEMENT_UPDATE;
+    }
+
+    /**
+     * the method will be triggered whenever the code runs a PreparedStatement
+     * update or adds a batch. the invocations done inside a loop, on a
+     * statement declared outside of the loop, are remembered until the loop
+     * is left.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the update or addBatch method is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        Tree loop = enclosingLoop(methodInvocationTree);
+        Symbol statement = receiverSymbol(methodInvocationTree);
+        if (loop == null || statement == null) {
+            return;
+        }
+        if (ADD_BATCH_METHOD.equals(JdbcInvocationDispatcher.methodName(methodInvocationTree))) {
+            loopBatches.computeIfAbsent(loop, key -> new HashSet<>()).add(statement);
+        } else if (isDeclaredOutside(statement, loop)) {
+            loopUpdates.computeIfAbsent(loop, key -> new ArrayList<>()).add(methodInvocationTree);
+        }
+    }
+
+    /**
+     * once a loop is left, report the updates of the statements that are not
+     * added to a batch in the same loop
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        super.leaveTree(tree);
+        List<MethodInvocationTree> updates = loopUpdates.remove(tree);
+        Set<Symbol> batches = loopBatches.remove(tree);
+        if (updates == null || !isLargeEnough(tree)) {
+            return;
+        }
+        for (MethodInvocationTree update : updates) {
+            if (batches == null || !batches.contains(receiverSymbol(update))) {
+                reportIssue(update,
+                        "Use \"addBatch()\" in the loop and \"executeBatch()\" after it instead of this \""
+                                + JdbcInvocationDispatcher.methodName(update) + "\" call, it runs one database round trip per iteration.",
+                        Collections.singletonList(loopLocation(tree)), null);
+            }
+        }
+    }
+
+    private boolean isLargeEnough(Tree loop) {
+        int loopSize = constantLoopSize(loop);
+        return loopSize == UNKNOWN_LOOP_SIZE || loopSize >= minimumLoopSize;
+    }
+
+    @CheckForNull
+    private static Symbol receiverSymbol(MethodInvocationTree methodInvocationTree) {
+        if (!methodInvocationTree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+            return null;
+        }
+        ExpressionTree receiver = ((MemberSelectExpressionTree) methodInvocationTree.methodSelect()).expression();
+        if (!receiver.is(Tree.Kind.IDENTIFIER)) {
+            return null;
+        }
+        Symbol symbol = ((IdentifierTree) receiver).symbol();
+        return symbol.isVariableSymbol() ? symbol : null;
+    }
+
+    private static boolean isDeclaredOutside(Symbol symbol, Tree loop) {
+        Tree declaration = symbol.declaration();
+        return declaration == null || !LoopContext.contains(loop, declaration);
+    }
+
+    /**
+     * compute the number of iterations of a counting for loop such as
+     * for (int i = 0; i &lt; 5; i++)
+     *
+     * @param loop the loop tree
+     * @return the number of iterations, or UNKNOWN_LOOP_SIZE if it can not
+     * be computed
+     */
+    private static int constantLoopSize(Tree loop) {
+        if (!loop.is(Tree.Kind.FOR_STATEMENT)) {
+            return UNKNOWN_LOOP_SIZE;
+        }
+        ForStatementTree forStatement = (ForStatementTree) loop;
+        if (forStatement.initializer().size() != 1 || forStatement.update().size() != 1
+                || !forStatement.initializer().get(0).is(Tree.Kind.VARIABLE)
+                || forStatement.condition() == null
+                || !forStatement.condition().is(Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_OR_EQUAL_TO)) {
+            return UNKNOWN_LOOP_SIZE;
+        }
+        VariableTree counter = (VariableTree) forStatement.initializer().get(0);
+        BinaryExpressionTree condition = (BinaryExpressionTree) forStatement.condition();
+        Integer start = intValue(counter.initializer());
+        Integer end = intValue(condition.rightOperand());
+        if (start == null || end == null || !isIdentifier(condition.leftOperand(), counter.symbol())
+                || !isIncrement(forStatement.update().get(0), counter.symbol())) {
+            return UNKNOWN_LOOP_SIZE;
+        }
+        int size = condition.is(Tree.Kind.LESS_THAN_OR_EQUAL_TO) ? end - start + 1 : end - start;
+        return Math.max(size, 0);
+    }
+
+    private static boolean isIncrement(StatementTree update, Symbol counter) {
+        if (!update.is(Tree.Kind.EXPRESSION_STATEMENT)) {
+            return false;
+        }
+        ExpressionTree expression = ((ExpressionStatementTree) update).expression();
+        return expression.is(Tree.Kind.POSTFIX_INCREMENT, Tree.Kind.PREFIX_INCREMENT)
+                && isIdentifier(((UnaryExpressionTree) expression).expression(), counter);
+    }
+
+    private static boolean isIdentifier(ExpressionTree expression, Symbol symbol) {
+        return expression.is(Tree.Kind.IDENTIFIER) && ((IdentifierTree) expression).symbol() == symbol;
+    }
+
+    @CheckForNull
+    private static Integer intValue(@Nullable ExpressionTree expression) {
+        if (expression == null || !expression.is(Tree.Kind.INT_LITERAL)) {
+            return null;
+        }
+        try {
+            return Integer.decode(((LiteralTree) expression).value().replace("_", ""));
+        } catch (NumberFormatException numberFormatException) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.ConstantFolder;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code builds the sql text given to
+ * the jdbc api with the values of the query, such as
+ * "select name from users where id = " + id. each value creates a new
+ * statement text, which fills the plan cache of the database server and the
+ * statement cache of the driver. the values should be given as bind
+ * variables instead.
+ * <p>
+ * a sql text which is a compile time constant, or a concatenation of
+ * constants, is compliant. a sql text which can not be traced to its
+ * construction, such as a method parameter, is not reported.
+ */
+@Rule(key = "NonConstantSqlCheckRule")
+public class NonConstantSqlCheckRule extends JdbcInvocationCheck {
+    private final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private final String STRING_CLASS = String.class.getCanonicalName();
+    private final String PREPARE_STATEMENT_METHOD = "prepareStatement";
+    private final String PREPARE_CALL_METHOD = "prepareCall";
+    private final String EXECUTE_QUERY_METHOD = "executeQuery";
+    private final String EXECUTE_METHOD = "execute";
+    private final String EXECUTE_UPDATE_METHOD = "executeUpdate";
+    private final String EXECUTE_LARGE_UPDATE_METHOD = "executeLargeUpdate";
+    private final String ADD_BATCH_METHOD = "addBatch";
+    private final String FORMAT_METHOD = "format";
+    private final String CONCAT_METHOD = "concat";
+
+    /**
+     * defining the method table with the Connection and Statement methods
+     * taking the sql text as first argument
+     */
+    private final JdbcMethodTable SQL_TEXT_METHODS = JdbcMethodTable.builder()
+            .addSubtypes(CONNECTION_CLASS, PREPARE_STATEMENT_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, PREPARE_CALL_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_QUERY_METHOD, 1)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_UPDATE_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_LARGE_UPDATE_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, ADD_BATCH_METHOD, 1)
+            .build();
+
+    /**
+     * @return the method table with the methods taking the sql text
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return SQL_TEXT_METHODS;
+    }
+
+    /**
+     * the method will be triggered whenever the code invokes a method taking
+     * the sql text. if the sql text is built with values, then raise an
+     * issue.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the method taking the sql text is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        if (methodInvocationTree.arguments().isEmpty()) {
+            return;
+        }
+        ExpressionTree sql = methodInvocationTree.arguments().get(0);
+        if (!sql.symbolType().is(STRING_CLASS)) {
+            return;
+        }
+        ExpressionTree construction = construction(sql);
+        if (construction != null && isBuiltWithValues(construction)) {
+            reportIssue(sql, "Use bind variables \"?\" instead of building the SQL text given to \""
+                    + JdbcInvocationDispatcher.methodName(methodInvocationTree) + "\" with values, every value creates a new statement.");
+        }
+    }
+
+    /**
+     * find the expression building the sql text: the argument itself, or the
+     * initializer of the local variable given as argument
+     */
+    @CheckForNull
+    private static ExpressionTree construction(ExpressionTree sql) {
+        ExpressionTree expression = MethodQueries.skipParentheses(sql);
+        if (!expression.is(Tree.Kind.IDENTIFIER)) {
+            return expression;
+        }
+        Symbol symbol = ((IdentifierTree) expression).symbol();
+        Tree declaration = symbol.declaration();
+        if (!symbol.isVariableSymbol() || declaration == null || !declaration.is(Tree.Kind.VARIABLE)
+                || symbol.owner() == null || !symbol.owner().isMethodSymbol()) {
+            return null;
+        }
+        ExpressionTree initializer = ((VariableTree) declaration).initializer();
+        return initializer == null ? null : MethodQueries.skipParentheses(initializer);
+    }
+
+    private boolean isBuiltWithValues(ExpressionTree expression) {
+        if (expression.is(Tree.Kind.PLUS)) {
+            return !isConstantOperand(expression);
+        }
+        if (expression.is(Tree.Kind.METHOD_INVOCATION)) {
+            MethodInvocationTree methodInvocationTree = (MethodInvocationTree) expression;
+            String methodName = JdbcInvocationDispatcher.methodName(methodInvocationTree);
+            Symbol method = methodInvocationTree.symbol();
+            return (FORMAT_METHOD.equals(methodName) || CONCAT_METHOD.equals(methodName))
+                    && method.isMethodSymbol() && method.owner().type().is(STRING_CLASS)
+                    && methodInvocationTree.arguments().size() > (FORMAT_METHOD.equals(methodName) ? 1 : 0);
+        }
+        return false;
+    }
+
+    /**
+     * an operand of the sql concatenation is constant when it can be folded,
+     * or when it is a static final variable declared in another file
+     */
+    private static boolean isConstantOperand(ExpressionTree operand) {
+        ExpressionTree expression = MethodQueries.skipParentheses(operand);
+        if (ConstantFolder.isConstant(expression)) {
+            return true;
+        }
+        if (expression.is(Tree.Kind.PLUS)) {
+            BinaryExpressionTree plus = (BinaryExpressionTree) expression;
+            return isConstantOperand(plus.leftOperand()) && isConstantOperand(plus.rightOperand());
+        }
+        Symbol symbol = variableSymbol(expression);
+        return symbol != null && symbol.isStatic() && symbol.isFinal();
+    }
+
+    @CheckForNull
+    private static Symbol variableSymbol(ExpressionTree expression) {
+        Symbol symbol = null;
+        if (expression.is(Tree.Kind.IDENTIFIER)) {
+            symbol = ((IdentifierTree) expression).symbol();
+        } else if (expression.is(Tree.Kind.MEMBER_SELECT)) {
+            symbol = ((MemberSelectExpressionTree) expression).identifier().symbol();
+        }
+        return symbol != null && symbol.isVariableSymbol() ? symbol : null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.ConstantFolder;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.LoopContext;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.sonar.plugins.java.api.tree.Tree.Kind.ASSIGNMENT;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.PLUS_ASSIGNMENT;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code prepares the same sql once
+ * per iteration of a loop. the sql is the same when it is a compile time
+ * constant, or a variable declared outside of the loop and not assigned
+ * inside of it. the statement should be prepared once, before the loop.
+ */
+@Rule(key = "PrepareInLoopCheckRule")
+public class PrepareInLoopCheckRule extends LoopTrackingCheck {
+    private final String CONNECTION_CLASS = java.sql.Connection.class.getCanonicalName();
+    private final String PREPARE_STATEMENT_METHOD = "prepareStatement";
+    private final String PREPARE_CALL_METHOD = "prepareCall";
+
+    /**
+     * defining the method table with the Connection class and the prepare
+     * methods
+     */
+    private final JdbcMethodTable CONNECTION_PREPARE = JdbcMethodTable.builder()
+            .addSubtypes(CONNECTION_CLASS, PREPARE_STATEMENT_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(CONNECTION_CLASS, PREPARE_CALL_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Map<Tree, List<MethodInvocationTree>> loopPrepares = new IdentityHashMap<>();
+    private final Map<Symbol, List<Tree>> loopAssignments = new HashMap<>();
+
+    /**
+     * @return the method table with the sql Connection prepare methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return CONNECTION_PREPARE;
+    }
+
+    /**
+     * on top of the method invocations and loops, the check visits the
+     * assignments to find the sql variables changing from one iteration to
+     * the other
+     *
+     * @return source code nodes that invoke a method, loop or assign a
+     * variable
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return ImmutableList.<Kind>builder().addAll(super.nodesToVisit()).add(ASSIGNMENT, PLUS_ASSIGNMENT).build();
+    }
+
+    /**
+     * remember the variables assigned inside a loop, and let the base class
+     * track the loops and dispatch the method invocations
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(ASSIGNMENT, PLUS_ASSIGNMENT)) {
+            ExpressionTree variable = ((AssignmentExpressionTree) tree).variable();
+            if (insideLoop() && variable.is(Kind.IDENTIFIER)) {
+                loopAssignments.computeIfAbsent(((IdentifierTree) variable).symbol(), key -> new ArrayList<>()).add(tree);
+            }
+        } else {
+            super.visitTree(tree);
+        }
+    }
+
+    /**
+     * the method will be triggered whenever the code prepares a statement.
+     * the statements prepared inside a loop are remembered until the loop is
+     * left, as the sql variable may be assigned after the prepare call.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the prepare method is invoked
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        Tree loop = enclosingLoop(methodInvocationTree);
+        if (loop != null && !methodInvocationTree.arguments().isEmpty()) {
+            loopPrepares.computeIfAbsent(loop, key -> new ArrayList<>()).add(methodInvocationTree);
+        }
+    }
+
+    /**
+     * once a loop is left, report the statements prepared with a sql that
+     * does not change from one iteration to the other
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        super.leaveTree(tree);
+        List<MethodInvocationTree> prepares = loopPrepares.remove(tree);
+        if (prepares != null) {
+            for (MethodInvocationTree prepare : prepares) {
+                if (isLoopInvariant(prepare.arguments().get(0), tree)) {
+                    reportIssue(prepare,
+                            "Move this \"" + JdbcInvocationDispatcher.methodName(prepare) + "\" call before the loop, the same SQL is prepared again on every iteration.",
+                            Collections.singletonList(loopLocation(tree)), null);
+                }
+            }
+        }
+        if (!insideLoop()) {
+            loopAssignments.clear();
+        }
+    }
+
+    private boolean isLoopInvariant(ExpressionTree sql, Tree loop) {
+        if (ConstantFolder.isConstant(sql)) {
+            return true;
+        }
+        Symbol variable = variableSymbol(sql);
+        if (variable == null) {
+            return false;
+        }
+        Tree declaration = variable.declaration();
+        if (declaration == null || LoopContext.contains(loop, declaration)) {
+            return false;
+        }
+        for (Tree assignment : loopAssignments.getOrDefault(variable, Collections.emptyList())) {
+            if (LoopContext.contains(loop, assignment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @CheckForNull
+    private static Symbol variableSymbol(ExpressionTree expression) {
+        if (!expression.is(Kind.IDENTIFIER)) {
+            return null;
+        }
+        Symbol symbol = ((IdentifierTree) expression).symbol();
+        return symbol.isVariableSymbol() ? symbol : null;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.JdbcMethodTable;
+import com.gp.sonarqube.custom.rules.LoopContext;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodReferenceTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CLASS;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.ENUM;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_REFERENCE;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code runs a sql query once per
+ * iteration of a loop (the N+1 query pattern). the query is either run
+ * directly in the loop, or by a method of the same class invoked in the loop.
+ * <p>
+ * the argument-less PreparedStatement#execute() is reported here as well: it
+ * may run a query or a stored procedure as well as an update, hence it is not
+ * reported by MissingBatchCheckRule, which only covers the update methods.
+ */
+@Rule(key = "QueryInLoopCheckRule")
+public class QueryInLoopCheckRule extends LoopTrackingCheck {
+    private final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private final String EXECUTE_QUERY_METHOD = "executeQuery";
+    private final String EXECUTE_METHOD = "execute";
+
+    /**
+     * defining the method table with the query methods of the Statement
+     * class and its sub interfaces
+     */
+    private final JdbcMethodTable STATEMENT_QUERY = JdbcMethodTable.builder()
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_QUERY_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .addSubtypes(STATEMENT_CLASS, EXECUTE_METHOD, JdbcMethodTable.ANY_PARAMETERS)
+            .build();
+
+    private final Deque<ClassFrame> classFrames = new ArrayDeque<>();
+
+    /**
+     * @return the method table with the sql Statement query methods
+     */
+    @Override
+    protected JdbcMethodTable methodTable() {
+        return STATEMENT_QUERY;
+    }
+
+    /**
+     * on top of the method invocations and loops, the check visits the
+     * classes and methods to find the queries run by the methods of the class
+     *
+     * @return source code nodes that invoke a method, loop, or declare a
+     * class or method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return ImmutableList.<Kind>builder().addAll(super.nodesToVisit()).add(CLASS, ENUM, METHOD, CONSTRUCTOR).build();
+    }
+
+    /**
+     * enter the classes and methods, and let the base class track the loops
+     * and dispatch the method invocations
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(CLASS, ENUM)) {
+            classFrames.push(new ClassFrame(((ClassTree) tree).symbol()));
+        } else if (tree.is(METHOD, CONSTRUCTOR)) {
+            if (!classFrames.isEmpty()) {
+                classFrames.peek().methods.push(((MethodTree) tree).symbol());
+            }
+        } else {
+            super.visitTree(tree);
+            if (tree.is(METHOD_INVOCATION)) {
+                visitClassMethodCall((MethodInvocationTree) tree);
+            }
+        }
+    }
+
+    /**
+     * leave the classes and methods. once a class is left, all its methods
+     * are known, and the calls done inside a loop to the methods running a
+     * query are reported.
+     *
+     * @param tree the ast tree of the source code
+     */
+    @Override
+    protected void leaveTree(Tree tree) {
+        if (tree.is(CLASS, ENUM)) {
+            if (!classFrames.isEmpty()) {
+                reportClassMethodCalls(classFrames.pop());
+            }
+        } else if (tree.is(METHOD, CONSTRUCTOR)) {
+            if (!classFrames.isEmpty() && !classFrames.peek().methods.isEmpty()) {
+                classFrames.peek().methods.pop();
+            }
+        } else {
+            super.leaveTree(tree);
+        }
+    }
+
+    /**
+     * the method will be triggered whenever the code runs a sql query. the
+     * query is remembered as run by the enclosing method, and an issue is
+     * raised if the query is run inside a loop.
+     *
+     * @param methodInvocationTree the ast tree of the source code whenever
+     *                             the sql query is run
+     */
+    @Override
+    protected void visitJdbcInvocation(MethodInvocationTree methodInvocationTree) {
+        ClassFrame classFrame = classFrames.peek();
+        if (classFrame != null && !classFrame.methods.isEmpty()) {
+            classFrame.queries.putIfAbsent(classFrame.methods.peek(), methodInvocationTree);
+        }
+        Tree loop = enclosingLoop(methodInvocationTree);
+        if (loop != null) {
+            reportIssue(methodInvocationTree,
+                    "Move this \"" + JdbcInvocationDispatcher.methodName(methodInvocationTree) + "\" call out of the loop, it runs one database round trip per iteration.",
+                    Collections.singletonList(loopLocation(loop)), null);
+        }
+    }
+
+    /**
+     * remember the invocations, done inside a loop, of the methods of the
+     * visited class. method references passed to per element methods count
+     * as invocations done inside a loop too.
+     */
+    private void visitClassMethodCall(MethodInvocationTree methodInvocationTree) {
+        ClassFrame classFrame = classFrames.peek();
+        if (classFrame == null) {
+            return;
+        }
+        Tree loop = enclosingLoop(methodInvocationTree);
+        if (loop != null) {
+            classFrame.addCall(methodInvocationTree, methodInvocationTree.symbol(), loop);
+        }
+        if (LoopContext.isPerElementInvocation(methodInvocationTree)) {
+            for (ExpressionTree argument : methodInvocationTree.arguments()) {
+                if (argument.is(METHOD_REFERENCE)) {
+                    MethodReferenceTree methodReference = (MethodReferenceTree) argument;
+                    classFrame.addCall(methodReference, methodReference.method().symbol(), methodInvocationTree);
+                }
+            }
+        }
+    }
+
+    private void reportClassMethodCalls(ClassFrame classFrame) {
+        for (MethodCall call : classFrame.calls) {
+            MethodInvocationTree query = classFrame.queries.get(call.method);
+            if (query != null) {
+                reportIssue(call.tree,
+                        "Move this call out of the loop, \"" + call.method.name() + "\" runs one database round trip per iteration.",
+                        ImmutableList.of(loopLocation(call.loop), new JavaFileScannerContext.Location("Database round trip.", query)), null);
+            }
+        }
+    }
+
+    /**
+     * the methods and queries of a visited class
+     */
+    private static final class ClassFrame {
+        private final Symbol classSymbol;
+        private final Deque<Symbol> methods = new ArrayDeque<>();
+        private final Map<Symbol, MethodInvocationTree> queries = new HashMap<>();
+        private final List<MethodCall> calls = new ArrayList<>();
+
+        private ClassFrame(Symbol classSymbol) {
+            this.classSymbol = classSymbol;
+        }
+
+        private void addCall(Tree tree, Symbol method, Tree loop) {
+            if (method.isMethodSymbol() && method.owner() == classSymbol) {
+                calls.add(new MethodCall(tree, method, loop));
+            }
+        }
+    }
+
+    /**
+     * invocation of a method of the visited class done inside a loop
+     */
+    private static final class MethodCall {
+        private final Tree tree;
+        private final Symbol method;
+        private final Tree loop;
+
+        private MethodCall(Tree tree, Symbol method, Tree loop) {
+            this.tree = tree;
+            this.method = method;
+            this.loop = loop;
+        }
+    }
+}
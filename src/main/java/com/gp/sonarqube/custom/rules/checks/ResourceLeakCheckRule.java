@@ -0,0 +1,61 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.ResourceLeakAnalyzer;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code leaves a sql Connection,
+ * Statement or ResultSet open on a path of the method acquiring it. a
+ * pooled connection left open is never returned to the pool, and the pool
+ * runs out of connections under load. the paths are followed by the
+ * ResourceLeakAnalyzer.
+ */
+@Rule(key = "ResourceLeakCheckRule")
+public class ResourceLeakCheckRule extends JdbcCheck {
+
+    /**
+     * invoke the check class whenever the parser encounters a method or
+     * constructor declaration
+     *
+     * @return source code nodes that declare a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD, CONSTRUCTOR);
+    }
+
+    /**
+     * the method will be triggered for every method declaration. the paths of
+     * the method are analysed, and an issue is raised on the acquisition of
+     * every resource left open.
+     *
+     * @param tree the ast tree of the method declaration
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        for (ResourceLeakAnalyzer.Leak leak : ResourceLeakAnalyzer.analyze((MethodTree) tree)) {
+            if (leak.isExceptional()) {
+                reportIssue(leak.acquisition(),
+                        "Use try-with-resources or close this \"" + leak.resourceType() + "\" in a \"finally\" clause, it is left open when an exception is thrown.",
+                        Collections.singletonList(new JavaFileScannerContext.Location("Exception thrown while the resource is open.", leak.location())), null);
+            } else {
+                reportIssue(leak.acquisition(),
+                        "Use try-with-resources or close this \"" + leak.resourceType() + "\", it is left open on this path.",
+                        Collections.singletonList(new JavaFileScannerContext.Location("Resource left open.", leak.location())), null);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.ConstantFolder;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import com.gp.sonarqube.custom.rules.SqlText;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code fetches columns it does not
+ * need. a constant query selecting "*" is reported, as well as the columns
+ * of a constant select list never read from the ResultSet of the query in
+ * the same method. every column fetched and not read costs database i/o and
+ * network bandwidth.
+ * <p>
+ * a ResultSet given to another method, or read with a column label or index
+ * which is not a constant, is considered as reading all the columns.
+ */
+@Rule(key = "SelectColumnsCheckRule")
+public class SelectColumnsCheckRule extends JdbcCheck {
+    private final String GET_METADATA_METHOD = "getMetaData";
+    private final String FIND_COLUMN_METHOD = "findColumn";
+
+    /**
+     * a constant query of the method, and the columns read from its
+     * ResultSet
+     */
+    private static final class Query {
+        private final ExpressionTree sqlArgument;
+        private final SqlText sqlText;
+        private final Set<Integer> readColumns = new HashSet<>();
+        private boolean allColumnsRead;
+
+        private Query(ExpressionTree sqlArgument, SqlText sqlText) {
+            this.sqlArgument = sqlArgument;
+            this.sqlText = sqlText;
+        }
+
+        private void read(String label) {
+            List<SqlText.SelectItem> items = sqlText.selectItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (label.equals(items.get(i).label())) {
+                    readColumns.add(i);
+                    return;
+                }
+            }
+            allColumnsRead = true;
+        }
+
+        private void read(int index) {
+            if (index < 1 || index > sqlText.selectItems().size()) {
+                allColumnsRead = true;
+            } else {
+                readColumns.add(index - 1);
+            }
+        }
+    }
+
+    /**
+     * invoke the check class whenever the parser encounters a method or
+     * constructor declaration
+     *
+     * @return source code nodes that declare a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD, CONSTRUCTOR);
+    }
+
+    /**
+     * the method will be triggered for every method declaration. the queries
+     * selecting "*" are reported, then the columns read from the ResultSet
+     * variables are matched against the select list of their queries.
+     *
+     * @param tree the ast tree of the method declaration
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        MethodQueries methodQueries = MethodQueries.scan((MethodTree) tree);
+        for (Map.Entry<ExpressionTree, SqlText> sql : methodQueries.constantSql().entrySet()) {
+            if (sql.getValue().isSelect() && sql.getValue().selectsAllColumns()) {
+                reportIssue(sql.getKey(), "Select only the columns read from the ResultSet instead of \"*\".");
+            }
+        }
+        Map<ExpressionTree, Query> queries = new IdentityHashMap<>();
+        Set<Query> readQueries = new LinkedHashSet<>();
+        for (Map.Entry<Symbol, MethodQueries.Execution> resultSet : methodQueries.resultSets().entrySet()) {
+            ExpressionTree sqlArgument = resultSet.getValue().sqlArgument();
+            SqlText sqlText = methodQueries.sqlText(sqlArgument);
+            if (sqlText == null || !sqlText.isSelect()) {
+                continue;
+            }
+            Query query = queries.computeIfAbsent(sqlArgument, key -> new Query(key, sqlText));
+            if (methodQueries.escapes(resultSet.getKey())) {
+                query.allColumnsRead = true;
+            }
+            for (MethodInvocationTree read : methodQueries.calls(resultSet.getKey())) {
+                if (readColumn(read, query)) {
+                    readQueries.add(query);
+                }
+            }
+        }
+        for (Query query : readQueries) {
+            reportUnreadColumns(query);
+        }
+    }
+
+    /**
+     * apply a method invocation of the ResultSet to the read columns of the
+     * query
+     *
+     * @return true if the invocation reads a column
+     */
+    private boolean readColumn(MethodInvocationTree read, Query query) {
+        String methodName = JdbcInvocationDispatcher.methodName(read);
+        if (GET_METADATA_METHOD.equals(methodName)) {
+            query.allColumnsRead = true;
+            return true;
+        }
+        boolean columnMethod = FIND_COLUMN_METHOD.equals(methodName)
+                || ((methodName.startsWith("get") || methodName.startsWith("update")) && !read.arguments().isEmpty());
+        if (!columnMethod) {
+            return false;
+        }
+        ExpressionTree column = read.arguments().get(0);
+        String value = ConstantFolder.stringValue(column);
+        if (value == null) {
+            query.allColumnsRead = true;
+        } else if (column.symbolType().is("int")) {
+            query.read(Integer.parseInt(value));
+        } else if (column.symbolType().is(String.class.getCanonicalName())) {
+            query.read(value.toLowerCase(Locale.ROOT));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void reportUnreadColumns(Query query) {
+        if (query.allColumnsRead || query.sqlText.isCompound() || query.sqlText.selectsAllColumns()) {
+            return;
+        }
+        List<String> unreadColumns = new ArrayList<>();
+        List<SqlText.SelectItem> items = query.sqlText.selectItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (!query.readColumns.contains(i)) {
+                String label = items.get(i).label();
+                unreadColumns.add("\"" + (label != null ? label : items.get(i).text()) + "\"");
+            }
+        }
+        if (!unreadColumns.isEmpty()) {
+            reportIssue(query.sqlArgument, "Remove " + (unreadColumns.size() == 1 ? "the column " : "the columns ")
+                    + String.join(", ", unreadColumns) + " from this query, " + (unreadColumns.size() == 1 ? "it is" : "they are")
+                    + " never read from the ResultSet.");
+        }
+    }
+}
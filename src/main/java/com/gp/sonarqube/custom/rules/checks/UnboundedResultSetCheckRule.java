@@ -0,0 +1,253 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.gp.sonarqube.custom.rules.JdbcInvocationDispatcher;
+import com.gp.sonarqube.custom.rules.MethodQueries;
+import com.gp.sonarqube.custom.rules.SqlText;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BreakStatementTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ReturnStatementTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.SwitchStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonar.plugins.java.api.tree.TypeCastTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.of;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.CONSTRUCTOR;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD;
+
+/**
+ * @author GP
+ * <p>
+ * java check class to check if the source code reads all the rows of a
+ * query without bounding the rows the driver fetches at once. several
+ * drivers read the whole ResultSet into the heap by default, unless a fetch
+ * size (or a max number of rows) is given to the statement.
+ * <p>
+ * the query is reported when its ResultSet is read in a while (rs.next())
+ * loop left only when the rows are exhausted, the constant sql text of the
+ * query has no limit, fetch first, top or rownum clause, and neither
+ * setFetchSize nor setMaxRows is called on the statement or the ResultSet.
+ * statements received as parameters or kept in fields are configured
+ * elsewhere, and are not reported.
+ */
+@Rule(key = "UnboundedResultSetCheckRule")
+public class UnboundedResultSetCheckRule extends JdbcCheck {
+    private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private final List<String> BOUNDING_METHODS = ImmutableList.of("setFetchSize", "setMaxRows", "setLargeMaxRows");
+
+    /**
+     * queries run on statements or connections of these types are not
+     * reported, their driver streaming the rows by default
+     */
+    @RuleProperty(
+            key = "exemptTypes",
+            description = "Comma separated fully qualified names of the statement or connection types (and their subtypes) of drivers streaming the rows by default, such as oracle.jdbc.OracleConnection. The types of the expressions creating the statement and the connection are matched, casts and unwrap calls included.")
+    public String exemptTypes = "";
+
+    private List<String> exemptTypeList;
+
+    /**
+     * invoke the check class whenever the parser encounters a method or
+     * constructor declaration
+     *
+     * @return source code nodes that declare a method
+     */
+    @Override
+    public List<Kind> nodesToVisit() {
+        return of(METHOD, CONSTRUCTOR);
+    }
+
+    /**
+     * the method will be triggered for every method declaration. every loop
+     * over the rows of a ResultSet is followed back to its query, and the
+     * query is reported if nothing bounds the rows fetched at once.
+     *
+     * @param tree the ast tree of the method declaration
+     */
+    @Override
+    protected void visitTree(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        MethodQueries methodQueries = MethodQueries.scan(methodTree);
+        Set<Symbol> parameters = new HashSet<>();
+        for (VariableTree parameter : methodTree.parameters()) {
+            parameters.add(parameter.symbol());
+        }
+        Set<MethodQueries.Execution> reported = new HashSet<>();
+        for (MethodQueries.RowLoop rowLoop : methodQueries.rowLoops()) {
+            MethodQueries.Execution execution = methodQueries.resultSets().get(rowLoop.resultSet());
+            if (execution != null && !reported.contains(execution) && isUnbounded(methodQueries, execution, rowLoop, parameters)) {
+                reported.add(execution);
+                Tree loopToken = rowLoop.loop().firstToken();
+                reportIssue(execution.invocation(),
+                        "Call \"setFetchSize\" or \"setMaxRows\" on the statement, or limit the rows of this query, the driver may buffer the whole ResultSet in memory.",
+                        Collections.singletonList(new JavaFileScannerContext.Location("Rows read until exhausted.", loopToken != null ? loopToken : rowLoop.loop())), null);
+            }
+        }
+    }
+
+    private boolean isUnbounded(MethodQueries methodQueries, MethodQueries.Execution execution, MethodQueries.RowLoop rowLoop, Set<Symbol> parameters) {
+        SqlText sqlText = methodQueries.sqlText(execution.sqlArgument());
+        if (sqlText == null || !sqlText.isSelect() || sqlText.limitsRows()) {
+            return false;
+        }
+        Symbol statement = execution.statement();
+        if (statement != null && (!isLocalVariable(statement, parameters) || callsBoundingMethod(methodQueries, statement))) {
+            return false;
+        }
+        if (callsBoundingMethod(methodQueries, rowLoop.resultSet()) || isExempt(execution.invocation(), new HashSet<>())) {
+            return false;
+        }
+        return !LoopExitFinder.leavesEarly(rowLoop.body());
+    }
+
+    private boolean callsBoundingMethod(MethodQueries methodQueries, Symbol variable) {
+        for (MethodInvocationTree call : methodQueries.calls(variable)) {
+            if (BOUNDING_METHODS.contains(JdbcInvocationDispatcher.methodName(call))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * check the types of the expressions the query comes from: the statement
+     * the query is executed on, the expression creating the statement, the
+     * connection the statement is created on, and so on back to the data
+     * source. the declared type of a variable is most of the time the plain
+     * jdbc interface, hence the initializers of the local variables are
+     * followed, and the casts and unwrap calls on the way are matched as well.
+     */
+    private boolean isExempt(ExpressionTree expression, Set<Symbol> visited) {
+        ExpressionTree current = MethodQueries.skipParentheses(expression);
+        if (isExemptType(current.symbolType())) {
+            return true;
+        }
+        if (current.is(Kind.TYPE_CAST)) {
+            return isExempt(((TypeCastTree) current).expression(), visited);
+        }
+        if (current.is(Kind.METHOD_INVOCATION)) {
+            ExpressionTree methodSelect = ((MethodInvocationTree) current).methodSelect();
+            return methodSelect.is(Kind.MEMBER_SELECT) && isExempt(((MemberSelectExpressionTree) methodSelect).expression(), visited);
+        }
+        if (current.is(Kind.IDENTIFIER)) {
+            Symbol symbol = ((IdentifierTree) current).symbol();
+            Tree declaration = symbol.declaration();
+            return visited.add(symbol) && declaration != null && declaration.is(Kind.VARIABLE)
+                    && ((VariableTree) declaration).initializer() != null
+                    && isExempt(((VariableTree) declaration).initializer(), visited);
+        }
+        return false;
+    }
+
+    private boolean isExemptType(Type type) {
+        if (exemptTypeList == null) {
+            exemptTypeList = LIST_SPLITTER.splitToList(exemptTypes);
+        }
+        for (String exemptType : exemptTypeList) {
+            if (type.isSubtypeOf(exemptType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLocalVariable(Symbol symbol, Set<Symbol> parameters) {
+        return symbol.owner() != null && symbol.owner().isMethodSymbol() && !parameters.contains(symbol);
+    }
+
+    /**
+     * finds a return, or a break leaving the row loop, in the body of the
+     * loop. the break statements of the nested loops and switches leave the
+     * nested statement only.
+     */
+    private static final class LoopExitFinder extends BaseTreeVisitor {
+        private int nestedBreakTargets;
+        private boolean leavesEarly;
+
+        private static boolean leavesEarly(StatementTree body) {
+            LoopExitFinder finder = new LoopExitFinder();
+            body.accept(finder);
+            return finder.leavesEarly;
+        }
+
+        @Override
+        public void visitReturnStatement(ReturnStatementTree tree) {
+            leavesEarly = true;
+        }
+
+        @Override
+        public void visitBreakStatement(BreakStatementTree tree) {
+            leavesEarly |= tree.label() != null || nestedBreakTargets == 0;
+        }
+
+        @Override
+        public void visitWhileStatement(WhileStatementTree tree) {
+            nestedBreakTargets++;
+            super.visitWhileStatement(tree);
+            nestedBreakTargets--;
+        }
+
+        @Override
+        public void visitDoWhileStatement(DoWhileStatementTree tree) {
+            nestedBreakTargets++;
+            super.visitDoWhileStatement(tree);
+            nestedBreakTargets--;
+        }
+
+        @Override
+        public void visitForStatement(ForStatementTree tree) {
+            nestedBreakTargets++;
+            super.visitForStatement(tree);
+            nestedBreakTargets--;
+        }
+
+        @Override
+        public void visitForEachStatement(ForEachStatement tree) {
+            nestedBreakTargets++;
+            super.visitForEachStatement(tree);
+            nestedBreakTargets--;
+        }
+
+        @Override
+        public void visitSwitchStatement(SwitchStatementTree tree) {
+            nestedBreakTargets++;
+            super.visitSwitchStatement(tree);
+            nestedBreakTargets--;
+        }
+
+        @Override
+        public void visitLambdaExpression(LambdaExpressionTree tree) {
+            // a return of a lambda does not leave the loop
+        }
+
+        @Override
+        public void visitClass(ClassTree tree) {
+            // a return of a method of a local class does not leave the loop
+        }
+    }
+}
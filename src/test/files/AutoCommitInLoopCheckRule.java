@@ -0,0 +1,100 @@
+import java.sql.*;
+import java.util.*;
+import javax.sql.DataSource;
+
+class AutoCommitInLoopCheckRule {
+
+    void dataSourceConnection(DataSource dataSource, List<String> names) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate(); // Noncompliant {{Call "connection.setAutoCommit(false)" before this loop and commit once, every "executeUpdate" commits its own transaction.}} [[secondary=10]]
+            }
+        }
+    }
+
+    void driverManagerConnection(String url, List<String> names) throws SQLException {
+        Connection db = DriverManager.getConnection(url);
+        try {
+            PreparedStatement statement = db.prepareStatement("delete from users where name = ?");
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate(); // Noncompliant {{Call "db.setAutoCommit(false)" before this loop and commit once, every "executeUpdate" commits its own transaction.}}
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    void batchPerChunk(DataSource dataSource, List<List<String>> chunks) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            for (List<String> chunk : chunks) {
+                for (String name : chunk) {
+                    statement.setString(1, name);
+                    statement.addBatch();
+                }
+                statement.executeBatch(); // Noncompliant
+            }
+        }
+    }
+
+    void autoCommitSwitchedBack(DataSource dataSource, List<String> names) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            connection.setAutoCommit(false);
+            connection.setAutoCommit(true);
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate(); // Noncompliant
+            }
+        }
+    }
+
+    void manualCommit(DataSource dataSource, List<String> names) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            connection.setAutoCommit(false);
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+
+    void connectionOfTheCaller(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void reassignedConnection(DataSource dataSource, List<String> names) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection = wrap(connection);
+        try (PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.executeUpdate();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    void updateOutsideOfLoop(DataSource dataSource, String name) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            statement.setString(1, name);
+            statement.executeUpdate();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return connection;
+    }
+}
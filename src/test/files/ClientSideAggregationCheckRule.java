@@ -0,0 +1,91 @@
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+class ClientSideAggregationCheckRule {
+
+    int count(Statement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet resultSet = statement.executeQuery("select id from orders")) {
+            while (resultSet.next()) { // Noncompliant {{Compute this aggregate with COUNT in the query, this loop fetches every row only to count it.}} [[secondary=9]]
+                count++;
+            }
+        }
+        return count;
+    }
+
+    long countPlusOne(Statement statement) throws SQLException {
+        long count = 0L;
+        try (ResultSet resultSet = statement.executeQuery("select id from orders")) {
+            for (; resultSet.next(); ) { // Noncompliant
+                count = count + 1L;
+            }
+        }
+        return count;
+    }
+
+    BigDecimal sum(Statement statement) throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        try (ResultSet resultSet = statement.executeQuery("select amount from orders")) {
+            while (resultSet.next()) { // Noncompliant {{Compute this aggregate with SUM in the query, this loop fetches every row only to add it up.}}
+                total = total.add(resultSet.getBigDecimal(1));
+            }
+        }
+        return total;
+    }
+
+    long[] countAndSum(Statement statement) throws SQLException {
+        long count = 0L;
+        long sum = 0L;
+        try (ResultSet resultSet = statement.executeQuery("select amount from orders")) {
+            while (resultSet.next()) { // Noncompliant {{Compute this aggregate with COUNT and SUM in the query, this loop fetches every row only to add it up.}}
+                count += 1;
+                sum += (long) resultSet.getInt("amount");
+            }
+        }
+        return new long[] {count, sum};
+    }
+
+    int sizeOfTheList(Statement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("select id from orders")) {
+            while (resultSet.next()) { // Noncompliant {{Compute this aggregate with COUNT in the query, this loop fetches every row only to count it.}}
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids.size();
+    }
+
+    List<Long> listOfRows(Statement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("select id from orders")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    long conditionalSum(Statement statement) throws SQLException {
+        long sum = 0L;
+        try (ResultSet resultSet = statement.executeQuery("select amount, status from orders")) {
+            while (resultSet.next()) {
+                if ("PAID".equals(resultSet.getString(2))) {
+                    sum += resultSet.getLong(1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    int countAndCollect(Statement statement, List<String> names) throws SQLException {
+        int count = 0;
+        try (ResultSet resultSet = statement.executeQuery("select name from users")) {
+            while (resultSet.next()) {
+                count++;
+                names.add(resultSet.getString(1));
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,48 @@
+import java.sql.*;
+import java.util.*;
+
+class ColumnLabelInLoopCheckRule {
+
+    void labelsInWhile(ResultSet resultSet, Map<Long, String> names) throws SQLException {
+        while (resultSet.next()) { // Noncompliant {{Resolve the column indexes with "resultSet.findColumn" before this loop, it looks up 2 column labels per row.}}
+            names.put(resultSet.getLong("id"), resultSet.getString("name"));
+        }
+    }
+
+    void labelInFor(ResultSet rows, List<String> names) throws SQLException {
+        for (int row = 0; rows.next(); row++) { // Noncompliant {{Resolve the column index with "rows.findColumn" before this loop, it looks up 1 column label per row.}} [[secondary=14]]
+            names.add(row + ": " + rows.getString("name"));
+        }
+    }
+
+    void updateByLabel(ResultSet resultSet) throws SQLException {
+        while (resultSet.next()) { // Noncompliant
+            resultSet.updateString("status", "archived");
+            resultSet.updateRow();
+        }
+    }
+
+    void columnIndexes(ResultSet resultSet, Map<Long, String> names) throws SQLException {
+        int id = resultSet.findColumn("id");
+        int name = resultSet.findColumn("name");
+        while (resultSet.next()) {
+            names.put(resultSet.getLong(id), resultSet.getString(name));
+        }
+    }
+
+    void labelInLambda(ResultSet resultSet, List<Runnable> tasks) throws SQLException {
+        while (resultSet.next()) {
+            tasks.add(() -> {
+                try {
+                    resultSet.getString("name");
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    String labelOutsideOfLoop(ResultSet resultSet) throws SQLException {
+        return resultSet.next() ? resultSet.getString("name") : null;
+    }
+}
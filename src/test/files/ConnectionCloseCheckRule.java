@@ -0,0 +1,33 @@
+import java.sql.*;
+import javax.sql.DataSource;
+
+class ConnectionCloseCheckRule {
+
+    void explicitClose(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.commit();
+        connection.close(); // Noncompliant {{Do not invoke the java.sql.Connection#close() method.}}
+    }
+
+    void closeInFinally(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.commit();
+        } finally {
+            connection.close(); // Noncompliant
+        }
+    }
+
+    void tryWithResources(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.commit();
+        }
+    }
+
+    void otherCloses(Connection connection, Statement statement) throws SQLException {
+        statement.close();
+        if (!connection.isClosed()) {
+            connection.rollback();
+        }
+    }
+}
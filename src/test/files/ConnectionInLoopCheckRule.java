@@ -0,0 +1,69 @@
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+
+class ConnectionInLoopCheckRule {
+
+    void dataSourceInForEach(DataSource dataSource, List<String> names) throws SQLException {
+        for (String name : names) {
+            try (Connection connection = dataSource.getConnection(); // Noncompliant {{Acquire the connection once before the loop, this "getConnection" call goes through the connection pool once per iteration.}} [[secondary=9]]
+                 PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+                statement.setString(1, name);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void driverManagerInWhile(String url, Iterator<String> users) throws SQLException {
+        while (users.hasNext()) {
+            try (Connection connection = DriverManager.getConnection(url, users.next(), "")) { // Noncompliant {{Acquire the connection once before the loop, this "getConnection" call opens one physical connection per iteration.}}
+                connection.commit();
+            }
+        }
+    }
+
+    void perElementLambda(DataSource dataSource, List<String> names) {
+        names.stream().map(name -> {
+            try (Connection connection = dataSource.getConnection()) { // Noncompliant
+                return connection.getCatalog() + name;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).forEach(System.out::println);
+    }
+
+    void anonymousCallback(DataSource dataSource, List<String> names) {
+        names.forEach(new Consumer<String>() {
+            @Override
+            public void accept(String name) {
+                try (Connection connection = dataSource.getConnection()) { // Noncompliant
+                    connection.commit();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+    }
+
+    void optionalMapIsNotALoop(DataSource dataSource, Optional<String> name) {
+        name.map(value -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.getCatalog() + value;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    void acquiredBeforeLoop(DataSource dataSource, List<String> names) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into users (name) values (?)")) {
+            for (String name : names) {
+                statement.setString(1, name);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.*;
+import java.sql.*;
+
+class LobMaterializationCheckRule {
+
+    void wholeBlob(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        Blob document = resultSet.getBlob("document");
+        out.write(document.getBytes(1, (int) document.length())); // Noncompliant {{Read the large object with "getBinaryStream" instead, this "getBytes" call loads its whole content into the heap.}}
+    }
+
+    void wholeClob(Clob body, Writer out) throws SQLException, IOException {
+        out.write(body.getSubString(1, Integer.MAX_VALUE)); // Noncompliant {{Read the large object with "getCharacterStream" instead, this "getSubString" call loads its whole content into the heap.}}
+    }
+
+    void lobColumns(ResultSet resultSet, OutputStream out, Writer writer) throws SQLException, IOException {
+        out.write(resultSet.getBytes("attachment_blob")); // Noncompliant {{Read the "attachment_blob" large object column with "getBinaryStream" instead, this "getBytes" call loads its whole content into the heap.}}
+        writer.write(resultSet.getString("BODY_CLOB")); // Noncompliant {{Read the "BODY_CLOB" large object column with "getCharacterStream" instead, this "getString" call loads its whole content into the heap.}}
+        writer.write(resultSet.getNString("notes_lob")); // Noncompliant
+    }
+
+    void streamedBlob(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        try (InputStream in = resultSet.getBinaryStream("document")) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    void chunkOfBlob(Blob document, OutputStream out) throws SQLException, IOException {
+        out.write(document.getBytes(1, 8192));
+    }
+
+    void shortColumns(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        writer.write(resultSet.getString("name"));
+        // VARCHAR columns, not matched by the default pattern
+        writer.write(resultSet.getString("content"));
+        writer.write(resultSet.getString("document"));
+        writer.write(resultSet.getString(3));
+    }
+}
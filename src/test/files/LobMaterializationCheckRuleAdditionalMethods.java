@@ -0,0 +1,15 @@
+import java.io.*;
+import java.sql.*;
+
+class LobMaterializationCheckRuleAdditionalMethods {
+
+    void readAll(Blob document, OutputStream out) throws SQLException, IOException {
+        out.write(document.getBytes(1, (int) document.length())); // Noncompliant
+        document.free();
+    }
+
+    void readColumn(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        writer.write(resultSet.getString("body_clob")); // Noncompliant
+        resultSet.close();
+    }
+}
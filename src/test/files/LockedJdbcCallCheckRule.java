@@ -0,0 +1,91 @@
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+class LockedJdbcCallCheckRule {
+    private final Lock lock = new ReentrantLock();
+    private final Map<Long, String> cache = new HashMap<>();
+
+    synchronized void synchronizedMethod(PreparedStatement statement) throws SQLException {
+        statement.executeUpdate(); // Noncompliant {{Move this "executeUpdate" call out of the locked section, every thread waiting for the lock also waits for this database round trip.}} [[secondary=9]]
+    }
+
+    void synchronizedBlock(PreparedStatement statement) throws SQLException {
+        synchronized (cache) {
+            statement.executeUpdate(); // Noncompliant [[secondary=14]]
+        }
+    }
+
+    void lockedSection(Connection connection) throws SQLException {
+        lock.lock();
+        try {
+            connection.commit(); // Noncompliant {{Move this "commit" call out of the locked section, every thread waiting for the lock also waits for this database round trip.}} [[secondary=20]]
+        } finally {
+            lock.unlock();
+        }
+        connection.rollback();
+    }
+
+    void interruptiblyLockedSection(Connection connection) throws SQLException, InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            connection.rollback(); // Noncompliant
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void tryLockCondition(Connection connection) throws SQLException {
+        if (lock.tryLock()) {
+            try {
+                connection.commit(); // Noncompliant
+            } finally {
+                release();
+            }
+        } else {
+            connection.rollback();
+        }
+        connection.commit();
+    }
+
+    void negatedTryLockCondition(Connection connection) throws SQLException {
+        if (!lock.tryLock()) {
+            connection.rollback();
+            return;
+        }
+        try {
+            connection.commit(); // Noncompliant
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void callbackCreatedInLockedSection(Connection connection, List<Runnable> tasks) {
+        lock.lock();
+        try {
+            tasks.add(() -> {
+                try {
+                    connection.commit();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void cacheUpdatedAfterQuery(PreparedStatement statement, long id) throws SQLException {
+        String name;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            name = resultSet.next() ? resultSet.getString(1) : null;
+        }
+        synchronized (cache) {
+            cache.put(id, name);
+        }
+    }
+
+    private void release() {
+        lock.unlock();
+    }
+}
@@ -0,0 +1,65 @@
+import java.sql.*;
+import java.util.*;
+
+class MissingBatchCheckRule {
+
+    void updateInForEach(PreparedStatement statement, List<String> names) throws SQLException {
+        for (String name : names) {
+            statement.setString(1, name);
+            statement.executeUpdate(); // Noncompliant {{Use "addBatch()" in the loop and "executeBatch()" after it instead of this "executeUpdate" call, it runs one database round trip per iteration.}} [[secondary=7]]
+        }
+    }
+
+    void executeInWhile(PreparedStatement statement, Iterator<Long> ids) throws SQLException {
+        while (ids.hasNext()) {
+            statement.setLong(1, ids.next());
+            statement.execute(); // may run a query, reported by QueryInLoopCheckRule
+        }
+    }
+
+    void largeUpdateInLambda(PreparedStatement statement, List<Long> ids) {
+        ids.forEach(id -> {
+            try {
+                statement.setLong(1, id);
+                statement.executeLargeUpdate(); // Noncompliant
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    void largeCountingLoop(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < 100; i++) {
+            statement.setInt(1, i);
+            statement.executeUpdate(); // Noncompliant
+        }
+    }
+
+    void smallCountingLoop(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            statement.setInt(1, i);
+            statement.executeUpdate();
+        }
+    }
+
+    void batched(PreparedStatement statement, List<String> names) throws SQLException {
+        for (String name : names) {
+            statement.setString(1, name);
+            statement.addBatch();
+        }
+        statement.executeBatch();
+    }
+
+    void statementOfTheIteration(Connection connection, List<String> tables) throws SQLException {
+        for (String table : tables) {
+            try (PreparedStatement statement = connection.prepareStatement("delete from " + table)) {
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void updateOutsideOfLoop(PreparedStatement statement, String name) throws SQLException {
+        statement.setString(1, name);
+        statement.executeUpdate();
+    }
+}
@@ -0,0 +1,54 @@
+import java.sql.*;
+
+class NonConstantSqlCheckRule {
+    private static final String USERS = "users";
+
+    void concatenatedValue(Statement statement, long id) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select name from users where id = " + id)) { // Noncompliant {{Use bind variables "?" instead of building the SQL text given to "executeQuery" with values, every value creates a new statement.}}
+            resultSet.next();
+        }
+    }
+
+    void formattedValue(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(String.format("select id from users where name = '%s'", name))) { // Noncompliant {{Use bind variables "?" instead of building the SQL text given to "prepareStatement" with values, every value creates a new statement.}}
+            statement.executeQuery().next();
+        }
+    }
+
+    void localVariable(Statement statement, String status) throws SQLException {
+        String sql = "update orders set status = '" + status + "'";
+        statement.executeUpdate(sql); // Noncompliant
+    }
+
+    void concatMethod(Statement statement, String table) throws SQLException {
+        statement.execute("delete from ".concat(table)); // Noncompliant
+    }
+
+    void batchedValue(Statement statement, long id) throws SQLException {
+        statement.addBatch("delete from sessions where user_id = " + id); // Noncompliant
+        statement.executeBatch();
+    }
+
+    void bindVariable(Connection connection, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from " + USERS + " where id = ? fetch first " + 10 + " rows only")) {
+            statement.setLong(1, id);
+            statement.executeQuery().next();
+        }
+    }
+
+    void constantOfAnotherClass(Statement statement) throws SQLException {
+        statement.executeQuery("select " + Queries.COLUMNS + " from users").next();
+    }
+
+    void formatWithoutValues(Statement statement) throws SQLException {
+        statement.executeQuery(String.format("select id from users")).next();
+    }
+
+    void sqlGivenByTheCaller(Statement statement, String sql) throws SQLException {
+        statement.execute(sql);
+    }
+}
+
+class Queries {
+    static final String COLUMNS = "id, name";
+}
@@ -0,0 +1,62 @@
+import java.sql.*;
+import java.util.*;
+
+class PrepareInLoopCheckRule {
+    private static final String INSERT = "insert into audit (name) values (?)";
+
+    void constantSql(Connection connection, List<Long> ids) throws SQLException {
+        for (Long id : ids) {
+            try (PreparedStatement statement = connection.prepareStatement("delete from users where id = ?")) { // Noncompliant {{Move this "prepareStatement" call before the loop, the same SQL is prepared again on every iteration.}} [[secondary=8]]
+                statement.setLong(1, id);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void constantField(Connection connection, Iterator<String> names) throws SQLException {
+        while (names.hasNext()) {
+            PreparedStatement statement = connection.prepareStatement(INSERT); // Noncompliant
+            statement.setString(1, names.next());
+            statement.executeUpdate();
+            statement.close();
+        }
+    }
+
+    void invariantVariable(Connection connection, List<Long> ids, String sql) throws SQLException {
+        for (Long id : ids) {
+            try (CallableStatement statement = connection.prepareCall(sql)) { // Noncompliant {{Move this "prepareCall" call before the loop, the same SQL is prepared again on every iteration.}}
+                statement.setLong(1, id);
+                statement.execute();
+            }
+        }
+    }
+
+    void preparedBeforeLoop(Connection connection, List<Long> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("delete from users where id = ?")) {
+            for (Long id : ids) {
+                statement.setLong(1, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    void variableAssignedInLoop(Connection connection, List<String> tables) throws SQLException {
+        String sql;
+        for (String table : tables) {
+            sql = "delete from " + table;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void sqlOfTheIteration(Connection connection, Map<String, Long> updates) throws SQLException {
+        for (Map.Entry<String, Long> update : updates.entrySet()) {
+            try (PreparedStatement statement = connection.prepareStatement(update.getKey())) {
+                statement.setLong(1, update.getValue());
+                statement.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.sql.*;
+import java.util.*;
+
+class QueryInLoopCheckRule {
+    private PreparedStatement byId;
+
+    void queryInFor(Statement statement, List<String> names) throws SQLException {
+        for (String name : names) {
+            try (ResultSet resultSet = statement.executeQuery("select id from users where name = '" + name + "'")) { // Noncompliant {{Move this "executeQuery" call out of the loop, it runs one database round trip per iteration.}} [[secondary=8]]
+                resultSet.next();
+            }
+        }
+    }
+
+    void executeInWhile(Statement statement, Iterator<String> tables) throws SQLException {
+        while (tables.hasNext()) {
+            statement.execute("select count(*) from " + tables.next()); // Noncompliant {{Move this "execute" call out of the loop, it runs one database round trip per iteration.}}
+        }
+    }
+
+    void queryInLambda(List<Long> ids) {
+        ids.forEach(id -> {
+            try {
+                byId.setLong(1, id);
+                byId.executeQuery().next(); // Noncompliant
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    void classMethodInLoop(List<Long> ids, List<String> names) {
+        for (Long id : ids) {
+            names.add(findName(id)); // Noncompliant {{Move this call out of the loop, "findName" runs one database round trip per iteration.}} [[secondary=33,77]]
+        }
+    }
+
+    void classMethodReference(List<Long> ids) {
+        ids.forEach(this::findName); // Noncompliant
+    }
+
+    void optionalMapIsNotALoop(Optional<Long> id) {
+        id.map(this::findName);
+        id.map(value -> findName(value));
+    }
+
+    void preparedExecuteInLoop(PreparedStatement statement, List<String> names) throws SQLException {
+        for (String name : names) {
+            statement.setString(1, name);
+            statement.execute(); // Noncompliant {{Move this "execute" call out of the loop, it runs one database round trip per iteration.}}
+        }
+    }
+
+    void preparedExecuteOnField(List<Long> ids) throws SQLException {
+        for (Long id : ids) {
+            byId.setLong(1, id);
+            this.byId.execute(); // Noncompliant
+        }
+    }
+
+    void statementPreparedInLoop(Connection connection, List<String> procedures) throws SQLException {
+        for (String procedure : procedures) {
+            try (CallableStatement statement = connection.prepareCall("{call " + procedure + "()}")) {
+                statement.execute(); // Noncompliant
+            }
+        }
+    }
+
+    void queryOutsideOfLoop(PreparedStatement statement, long id) throws SQLException {
+        statement.setLong(1, id);
+        statement.executeQuery().next();
+    }
+
+    private String findName(Long id) {
+        try {
+            byId.setLong(1, id);
+            try (ResultSet resultSet = byId.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.sql.*;
+import javax.sql.DataSource;
+
+class ResourceLeakCheckRule {
+
+    void neverClosed(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection(); // Noncompliant {{Use try-with-resources or close this "Connection", it is left open on this path.}}
+        connection.setAutoCommit(false);
+    }
+
+    void closedOnTheNormalPathOnly(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection(); // Noncompliant {{Use try-with-resources or close this "Connection" in a "finally" clause, it is left open when an exception is thrown.}}
+        connection.setAutoCommit(false);
+        connection.close();
+    }
+
+    void resultSetClosedStatementLeft(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement(); // Noncompliant {{Use try-with-resources or close this "Statement", it is left open on this path.}}
+        ResultSet resultSet = statement.executeQuery("select id from users");
+        try {
+            resultSet.next();
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    void swallowedInCatch(DataSource dataSource) {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection(); // Noncompliant
+            connection.commit();
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    void neverAssigned(DataSource dataSource) throws SQLException {
+        dataSource.getConnection().setAutoCommit(false); // Noncompliant
+    }
+
+    void statementClosesItsResultSet(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery("select id from users");
+            resultSet.next();
+        } finally {
+            statement.close();
+        }
+    }
+
+    void connectionClosesItsStatement(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            PreparedStatement statement = connection.prepareStatement("delete from sessions");
+            statement.executeUpdate();
+        } finally {
+            connection.close();
+        }
+    }
+
+    void closedInCatch(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        connection.close();
+    }
+
+    int closedInCatchOnly(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection(); // Noncompliant {{Use try-with-resources or close this "Connection", it is left open on this path.}}
+        try {
+            connection.setAutoCommit(false);
+            return connection.getTransactionIsolation();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    void reassignedClosedInCatchOnly(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection(); // Noncompliant {{Use try-with-resources or close this "Connection", it is left open on this path.}}
+        try {
+            connection.setAutoCommit(false);
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        connection.close();
+    }
+
+    void nullCheckedInFinally(DataSource dataSource) throws SQLException {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.commit();
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    void tryWithResources(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select id from users")) {
+            resultSet.next();
+        }
+    }
+
+    Connection returnedToTheCaller(DataSource dataSource) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        return connection;
+    }
+}
@@ -0,0 +1,30 @@
+import java.sql.*;
+
+class ResultSetCloseCheckRule {
+
+    void explicitClose(Statement statement) throws SQLException {
+        ResultSet resultSet = statement.executeQuery("select id from users");
+        resultSet.next();
+        resultSet.close(); // Noncompliant {{Do not invoke the java.sql.ResultSet#close() method.}}
+    }
+
+    void closeInFinally(Statement statement) throws SQLException {
+        ResultSet resultSet = statement.executeQuery("select id from users");
+        try {
+            resultSet.next();
+        } finally {
+            resultSet.close(); // Noncompliant
+        }
+    }
+
+    void tryWithResources(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id from users")) {
+            resultSet.next();
+        }
+    }
+
+    void otherCloses(Statement statement, java.io.Closeable closeable) throws Exception {
+        statement.close();
+        closeable.close();
+    }
+}
@@ -0,0 +1,82 @@
+import java.sql.*;
+import java.util.*;
+
+class SelectColumnsCheckRule {
+
+    void selectStar(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select * from users"); // Noncompliant {{Select only the columns read from the ResultSet instead of "*".}}
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString("name"));
+            }
+        }
+    }
+
+    void unreadColumn(Connection connection, Map<Long, String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select id, name, email from users"); // Noncompliant {{Remove the column "email" from this query, it is never read from the ResultSet.}}
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.put(resultSet.getLong("id"), resultSet.getString("name"));
+            }
+        }
+    }
+
+    void unreadColumnsByIndex(Statement statement, Map<Long, String> names) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select u.id, u.name, u.email, u.phone from users u")) { // Noncompliant {{Remove the columns "email", "phone" from this query, they are never read from the ResultSet.}}
+            while (resultSet.next()) {
+                names.put(resultSet.getLong(1), resultSet.getString(2));
+            }
+        }
+    }
+
+    void everyColumnRead(Statement statement, Map<Long, String> names) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id, name from users")) {
+            while (resultSet.next()) {
+                names.put(resultSet.getLong("id"), resultSet.getString("name"));
+            }
+        }
+    }
+
+    long aliasedAggregate(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select count(*) as total from users")) {
+            return resultSet.next() ? resultSet.getLong("total") : 0L;
+        }
+    }
+
+    void resultSetGivenToAMapper(Statement statement, List<String> names) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id, name, email from users")) {
+            while (resultSet.next()) {
+                names.add(resultSet.getLong("id") + map(resultSet));
+            }
+        }
+    }
+
+    void metaData(Statement statement, List<String> labels) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id, name, email from users")) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                labels.add(metaData.getColumnLabel(column) + resultSet.getString(column));
+            }
+        }
+    }
+
+    void columnGivenByTheCaller(Statement statement, String column, List<String> values) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id, name, email from users")) {
+            while (resultSet.next()) {
+                values.add(resultSet.getString(column));
+            }
+        }
+    }
+
+    void unionQuery(Statement statement, List<String> names) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select id, name from users union select id, name from admins")) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString("name"));
+            }
+        }
+    }
+
+    private String map(ResultSet resultSet) throws SQLException {
+        return resultSet.getString("name");
+    }
+}
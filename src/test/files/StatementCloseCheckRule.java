@@ -0,0 +1,37 @@
+import java.sql.*;
+
+class StatementCloseCheckRule {
+
+    void explicitClose(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("delete from sessions");
+        statement.close(); // Noncompliant {{Do not invoke the java.sql.Statement#close() method.}}
+    }
+
+    void preparedStatementClose(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("delete from sessions where id = ?");
+        try {
+            statement.setLong(1, 42L);
+            statement.executeUpdate();
+        } finally {
+            statement.close(); // Noncompliant
+        }
+    }
+
+    void callableStatementClose(Connection connection) throws SQLException {
+        CallableStatement statement = connection.prepareCall("{call purge_sessions()}");
+        statement.execute();
+        statement.close(); // Noncompliant
+    }
+
+    void tryWithResources(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("delete from sessions");
+        }
+    }
+
+    void otherCloses(Connection connection, ResultSet resultSet) throws SQLException {
+        resultSet.close();
+        connection.close();
+    }
+}
@@ -0,0 +1,97 @@
+import java.sql.*;
+import java.util.*;
+
+class UnboundedResultSetCheckRule {
+
+    void preparedQuery(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) { // Noncompliant {{Call "setFetchSize" or "setMaxRows" on the statement, or limit the rows of this query, the driver may buffer the whole ResultSet in memory.}} [[secondary=9]]
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void createdStatementQuery(Connection connection, List<String> names) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select name from users order by name")) { // Noncompliant
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void breakOfANestedLoop(Connection connection, List<String> names, Set<String> excluded) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) { // Noncompliant
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                for (String excludedName : excluded) {
+                    if (excludedName.equals(name)) {
+                        break;
+                    }
+                }
+                names.add(name);
+            }
+        }
+    }
+
+    void fetchSize(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users")) {
+            statement.setFetchSize(500);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    names.add(resultSet.getString(1));
+                }
+            }
+        }
+    }
+
+    void fetchSizeOfTheResultSet(Connection connection, List<String> names) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select name from users")) {
+            resultSet.setFetchSize(500);
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void limitedQuery(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users order by name limit 100");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void fetchFirstRows(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users fetch first 10 rows only");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    String earlyReturn(Connection connection, String prefix) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                if (resultSet.getString(1).startsWith(prefix)) {
+                    return resultSet.getString(1);
+                }
+            }
+        }
+        return null;
+    }
+
+    void statementOfTheCaller(PreparedStatement statement, List<String> names) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+}
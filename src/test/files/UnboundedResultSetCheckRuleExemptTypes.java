@@ -0,0 +1,57 @@
+import java.sql.*;
+import java.util.*;
+import javax.sql.DataSource;
+
+interface StreamingConnection extends Connection {
+}
+
+interface StreamingStatement extends PreparedStatement {
+}
+
+class UnboundedResultSetCheckRuleExemptTypes {
+
+    void plainConnection(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) { // Noncompliant
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void exemptConnection(StreamingConnection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void unwrappedConnection(DataSource dataSource, List<String> names) throws SQLException {
+        try (Connection connection = dataSource.getConnection().unwrap(StreamingConnection.class);
+             PreparedStatement statement = connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void castStatement(Connection connection, List<String> names) throws SQLException {
+        try (PreparedStatement statement = (StreamingStatement) connection.prepareStatement("select name from users");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+
+    void castConnectionInAChain(Connection connection, List<String> names) throws SQLException {
+        try (ResultSet resultSet = ((StreamingConnection) connection).prepareStatement("select name from users").executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+    }
+}
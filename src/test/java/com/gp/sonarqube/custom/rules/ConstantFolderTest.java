@@ -0,0 +1,77 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify the folding of the literals, final variables, concatenations and
+ * escape sequences by the ConstantFolder, on the initializers of the fields
+ * of a parsed class
+ */
+public class ConstantFolderTest {
+    private static final Map<String, ExpressionTree> INITIALIZERS = new HashMap<>();
+
+    @BeforeClass
+    public static void parse() {
+        CompilationUnitTree compilationUnit = (CompilationUnitTree) JavaParser.createParser().parse(
+                "class Queries {\n"
+                        + "  static final String TABLE = \"users\";\n"
+                        + "  static final String QUERY = \"select * from \" + TABLE + \" where id = \" + 1;\n"
+                        + "  static final String QUALIFIED = \"delete from \" + Queries.TABLE;\n"
+                        + "  static final String MIXED = (\"a\" + 'b') + 2_000L + true;\n"
+                        + "  static final String ESCAPED = \"a\\tb\\n\\\"c\\\"\";\n"
+                        + "  String mutable = \"users\";\n"
+                        + "  final String fromMutable = \"select * from \" + mutable;\n"
+                        + "  final String call = \"select \" + String.valueOf(1);\n"
+                        + "  final String nonConstantFirst = mutable + \"x\";\n"
+                        + "}");
+        SemanticModel.createFor(compilationUnit, new SquidClassLoader(Collections.<File>emptyList()));
+        for (Tree member : ((ClassTree) compilationUnit.types().get(0)).members()) {
+            VariableTree field = (VariableTree) member;
+            INITIALIZERS.put(field.simpleName().name(), field.initializer());
+        }
+    }
+
+    @Test
+    public void literals_and_concatenations() {
+        assertThat(ConstantFolder.stringValue(INITIALIZERS.get("TABLE"))).isEqualTo("users");
+        assertThat(ConstantFolder.stringValue(INITIALIZERS.get("QUERY"))).isEqualTo("select * from users where id = 1");
+        assertThat(ConstantFolder.stringValue(INITIALIZERS.get("MIXED"))).isEqualTo("ab2000true");
+    }
+
+    @Test
+    public void final_fields_by_qualified_name() {
+        assertThat(ConstantFolder.stringValue(INITIALIZERS.get("QUALIFIED"))).isEqualTo("delete from users");
+    }
+
+    @Test
+    public void escape_sequences() {
+        assertThat(ConstantFolder.stringValue(INITIALIZERS.get("ESCAPED"))).isEqualTo("a\tb\n\"c\"");
+    }
+
+    @Test
+    public void non_constants() {
+        assertThat(ConstantFolder.isConstant(INITIALIZERS.get("mutable"))).isTrue();
+        assertThat(ConstantFolder.isConstant(INITIALIZERS.get("fromMutable"))).isFalse();
+        assertThat(ConstantFolder.isConstant(INITIALIZERS.get("call"))).isFalse();
+        assertThat(ConstantFolder.isConstant(INITIALIZERS.get("nonConstantFirst"))).isFalse();
+        assertThat(ConstantFolder.isConstant(null)).isFalse();
+    }
+}
@@ -0,0 +1,81 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify that the keys of the IssueCache change with the rule, its
+ * parameters, the file content and the classpath of the analysis
+ */
+public class IssueCacheTest {
+    private static final String CONTENT = "class A {}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After
+    public void reset() {
+        IssueCache.configure(false, IssueCache.DEFAULT_SIZE, null, Collections.<File>emptyList());
+    }
+
+    @Test
+    public void key_of_the_rule_parameters_and_content() {
+        String key = IssueCache.key("QueryInLoop", "", CONTENT);
+        assertThat(IssueCache.key("QueryInLoop", "", CONTENT)).isEqualTo(key);
+        assertThat(IssueCache.key("MissingBatch", "", CONTENT)).isNotEqualTo(key);
+        assertThat(IssueCache.key("QueryInLoop", "additionalMethodNames=find", CONTENT)).isNotEqualTo(key);
+        assertThat(IssueCache.key("QueryInLoop", "", CONTENT + " ")).isNotEqualTo(key);
+    }
+
+    @Test
+    public void key_of_the_classpath() throws Exception {
+        File binaries = temporaryFolder.newFolder("classes");
+        File classFile = new File(binaries, "A.class");
+        Files.write(classFile.toPath(), new byte[]{1});
+
+        IssueCache.configure(true, IssueCache.DEFAULT_SIZE, null, ImmutableList.of(binaries));
+        String key = IssueCache.key("QueryInLoop", "", CONTENT);
+        IssueCache.configure(true, IssueCache.DEFAULT_SIZE, null, ImmutableList.of(binaries));
+        assertThat(IssueCache.key("QueryInLoop", "", CONTENT)).isEqualTo(key);
+
+        Files.write(classFile.toPath(), new byte[]{1, 2});
+        IssueCache.configure(true, IssueCache.DEFAULT_SIZE, null, ImmutableList.of(binaries));
+        assertThat(IssueCache.key("QueryInLoop", "", CONTENT)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void classpath_fingerprint() throws Exception {
+        File binaries = temporaryFolder.newFolder("classes");
+        File classFile = new File(binaries, "a/A.class");
+        assertThat(classFile.getParentFile().mkdirs()).isTrue();
+        Files.write(classFile.toPath(), new byte[]{1});
+        File library = temporaryFolder.newFile("library.jar");
+        String fingerprint = IssueCache.classpathFingerprint(ImmutableList.of(binaries, library));
+
+        assertThat(IssueCache.classpathFingerprint(ImmutableList.of(binaries, library))).isEqualTo(fingerprint);
+        assertThat(IssueCache.classpathFingerprint(ImmutableList.of(binaries))).isNotEqualTo(fingerprint);
+
+        // the files which are neither classes nor jars are ignored
+        Files.write(new File(binaries, "a/messages.properties").toPath(), "a=b".getBytes(UTF_8));
+        assertThat(IssueCache.classpathFingerprint(ImmutableList.of(binaries, library))).isEqualTo(fingerprint);
+
+        assertThat(classFile.setLastModified(classFile.lastModified() - 10000)).isTrue();
+        assertThat(IssueCache.classpathFingerprint(ImmutableList.of(binaries, library))).isNotEqualTo(fingerprint);
+        fingerprint = IssueCache.classpathFingerprint(ImmutableList.of(binaries, library));
+
+        Files.write(new File(binaries, "a/B.class").toPath(), new byte[]{1});
+        assertThat(IssueCache.classpathFingerprint(ImmutableList.of(binaries, library))).isNotEqualTo(fingerprint);
+    }
+}
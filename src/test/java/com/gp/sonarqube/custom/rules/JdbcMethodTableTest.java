@@ -0,0 +1,108 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify the matching of the JdbcMethodTable, and its extension with
+ * additional owner types and method names, on the invocations of a parsed
+ * class
+ */
+public class JdbcMethodTableTest {
+    private static final String STATEMENT_CLASS = java.sql.Statement.class.getCanonicalName();
+    private static final List<MethodInvocationTree> INVOCATIONS = new ArrayList<>();
+
+    private final JdbcMethodTable table = JdbcMethodTable.builder()
+            .addSubtypes(STATEMENT_CLASS, "executeQuery", 1)
+            .build();
+
+    @BeforeClass
+    public static void parse() {
+        CompilationUnitTree compilationUnit = (CompilationUnitTree) JavaParser.createParser().parse(
+                "import java.sql.*;\n"
+                        + "interface Template {\n"
+                        + "  Object executeQuery(String sql);\n"
+                        + "  Object queryForList(String sql);\n"
+                        + "}\n"
+                        + "class Calls {\n"
+                        + "  void calls(PreparedStatement statement, Template template) throws SQLException {\n"
+                        + "    statement.executeQuery(\"select 1\");\n"
+                        + "    template.executeQuery(\"select 2\");\n"
+                        + "    template.queryForList(\"select 3\");\n"
+                        + "    statement.getMoreResults();\n"
+                        + "    statement.executeQuery();\n"
+                        + "    statement.close();\n"
+                        + "  }\n"
+                        + "}");
+        SemanticModel.createFor(compilationUnit, new SquidClassLoader(Collections.<File>emptyList()));
+        compilationUnit.accept(new BaseTreeVisitor() {
+            @Override
+            public void visitMethodInvocation(MethodInvocationTree tree) {
+                INVOCATIONS.add(tree);
+                super.visitMethodInvocation(tree);
+            }
+        });
+        assertThat(INVOCATIONS).hasSize(6);
+    }
+
+    @Test
+    public void matches_owner_subtypes_and_parameter_count() {
+        assertThat(matches(table)).containsExactly(true, false, false, false, false, false);
+        assertThat(table.containsName("executeQuery")).isTrue();
+        assertThat(table.containsName("close")).isFalse();
+    }
+
+    @Test
+    public void matches_the_dispatched_invocation() {
+        assertThat(table.matches(JdbcInvocationDispatcher.dispatch(INVOCATIONS.get(0)))).isTrue();
+        assertThat(table.matches(JdbcInvocationDispatcher.dispatch(INVOCATIONS.get(1)))).isFalse();
+        JdbcInvocationDispatcher.clear();
+    }
+
+    @Test
+    public void extend_without_additions_returns_the_table() {
+        assertThat(table.extend(Collections.<String>emptyList(), Collections.<String>emptyList())).isSameAs(table);
+    }
+
+    @Test
+    public void extend_with_owner_types_and_method_names() {
+        JdbcMethodTable extended = table.extend(ImmutableList.of("Template"), ImmutableList.of("queryForList", "getMoreResults"));
+        assertThat(extended.names()).containsOnly("executeQuery", "queryForList", "getMoreResults");
+        // the additional owner types get the method names of the table, the
+        // additional method names are added to the owner types of the table,
+        // with any number of parameters
+        assertThat(matches(extended)).containsExactly(true, true, true, true, false, false);
+        assertThat(matches(table)).containsExactly(true, false, false, false, false, false);
+    }
+
+    @Test
+    public void extend_with_owner_types_only() {
+        JdbcMethodTable extended = table.extend(ImmutableList.of("Template"), Collections.<String>emptyList());
+        assertThat(extended.names()).containsOnly("executeQuery");
+        assertThat(matches(extended)).containsExactly(true, true, false, false, false, false);
+    }
+
+    private static List<Boolean> matches(JdbcMethodTable methodTable) {
+        List<Boolean> matches = new ArrayList<>();
+        for (MethodInvocationTree invocation : INVOCATIONS) {
+            matches.add(methodTable.matches(invocation));
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gp.sonarqube.custom.rules;
+
+import com.google.gson.Gson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify the generation and loading of the RuleMetadataIndex, and that the
+ * rules defined from the index are the same as the ones defined from the
+ * metadata files of every rule, the fallback when there is no index
+ */
+public class RuleMetadataIndexTest {
+    private static final String METADATA_DIRECTORY = "src/main/resources/org/sonar/l10n/java/rules/squid";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void generate_and_load() throws Exception {
+        File indexFile = new File(temporaryFolder.getRoot(), "index/" + RuleMetadataIndex.FILE_NAME);
+        RuleMetadataIndex.main(new String[]{METADATA_DIRECTORY, indexFile.getPath()});
+
+        Map<String, RuleMetadataIndex.Entry> index = RuleMetadataIndex.load(new Gson(), indexFile.toURI().toURL());
+        for (Class<?> checkClass : RulesList.getChecks()) {
+            String ruleKey = checkClass.getAnnotation(org.sonar.check.Rule.class).key();
+            RuleMetadataIndex.Entry entry = index.get(ruleKey);
+            assertThat(entry).as(ruleKey).isNotNull();
+            RuleMetadata metadata = new Gson().fromJson(read(ruleKey + "_java.json"), RuleMetadata.class);
+            assertThat(entry.metadata.title).isEqualTo(metadata.title);
+            assertThat(entry.metadata.defaultSeverity).isEqualTo(metadata.defaultSeverity);
+            assertThat(entry.description).isEqualTo(read(ruleKey + "_java.html"));
+        }
+    }
+
+    @Test
+    public void missing_index() {
+        assertThat(RuleMetadataIndex.load(new Gson(), null)).isEmpty();
+    }
+
+    @Test
+    public void rules_defined_from_the_index_and_from_the_files() {
+        assertThat(JavaRulesDefinition.class.getResource("/org/sonar/l10n/java/rules/squid/" + RuleMetadataIndex.FILE_NAME)).isNotNull();
+        RulesDefinition.Context indexedContext = new RulesDefinition.Context();
+        new JavaRulesDefinition().define(indexedContext);
+        RulesDefinition.Repository indexed = indexedContext.repository(JavaRulesDefinition.REPOSITORY_KEY);
+
+        // a definition which has not loaded the index reads the files of every rule
+        RulesDefinition.Context fallbackContext = new RulesDefinition.Context();
+        RulesDefinition.NewRepository newRepository = fallbackContext.createRepository(JavaRulesDefinition.REPOSITORY_KEY, "java");
+        List<Class> checks = RulesList.getChecks();
+        new RulesDefinitionAnnotationLoader().load(newRepository, checks.toArray(new Class[checks.size()]));
+        JavaRulesDefinition fallbackDefinition = new JavaRulesDefinition();
+        for (Class<?> checkClass : checks) {
+            fallbackDefinition.newRule(checkClass, newRepository);
+        }
+        newRepository.done();
+        RulesDefinition.Repository fallback = fallbackContext.repository(JavaRulesDefinition.REPOSITORY_KEY);
+
+        assertThat(indexed.rules()).hasSameSizeAs(fallback.rules()).hasSize(checks.size());
+        for (RulesDefinition.Rule rule : fallback.rules()) {
+            RulesDefinition.Rule indexedRule = indexed.rule(rule.key());
+            assertThat(indexedRule).as(rule.key()).isNotNull();
+            assertThat(indexedRule.name()).isEqualTo(rule.name()).isNotEmpty();
+            assertThat(indexedRule.htmlDescription()).isEqualTo(rule.htmlDescription()).isNotEmpty();
+            assertThat(indexedRule.severity()).isEqualTo(rule.severity());
+            assertThat(indexedRule.type()).isEqualTo(rule.type());
+            assertThat(indexedRule.status()).isEqualTo(rule.status());
+            assertThat(indexedRule.tags()).isEqualTo(rule.tags());
+            assertThat(indexedRule.debtRemediationFunction()).isEqualTo(rule.debtRemediationFunction());
+            assertThat(indexedRule.gapDescription()).isEqualTo(rule.gapDescription());
+        }
+    }
+
+    private static String read(String fileName) throws Exception {
+        return new String(Files.readAllBytes(new File(METADATA_DIRECTORY, fileName).toPath()), UTF_8);
+    }
+}
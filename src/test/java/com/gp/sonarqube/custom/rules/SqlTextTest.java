@@ -0,0 +1,97 @@
+package com.gp.sonarqube.custom.rules;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify the select list splitting, the labels and aliases, the row limits
+ * and the blanking of the literals and comments of the SqlText parser
+ */
+public class SqlTextTest {
+
+    @Test
+    public void select_list() {
+        SqlText sql = SqlText.parse("SELECT id, coalesce(name, 'none'), u.email FROM users u");
+        assertThat(sql.isSelect()).isTrue();
+        assertThat(sql.isCompound()).isFalse();
+        // the items are lower cased, and the content of their literals blanked
+        assertThat(texts(sql)).containsExactly("id", "coalesce(name, '    ')", "u.email");
+        assertThat(labels(sql)).containsExactly("id", null, "email");
+        assertThat(sql.selectsAllColumns()).isFalse();
+    }
+
+    @Test
+    public void aliases() {
+        SqlText sql = SqlText.parse("select count(*) as total, max(price) top_price, price as \"Unit Price\", a + b, case when x then 1 end from t");
+        assertThat(labels(sql)).containsExactly("total", "top_price", "unit price", null, null);
+    }
+
+    @Test
+    public void star_items() {
+        assertThat(SqlText.parse("select * from users").selectsAllColumns()).isTrue();
+        assertThat(SqlText.parse("select u.*, o.id from users u join orders o on o.user_id = u.id").selectsAllColumns()).isTrue();
+        assertThat(SqlText.parse("select count(*) from users").selectsAllColumns()).isFalse();
+    }
+
+    @Test
+    public void quantifiers_and_top() {
+        SqlText sql = SqlText.parse("select distinct top 10 id, name from users");
+        assertThat(texts(sql)).containsExactly("id", "name");
+        assertThat(sql.limitsRows()).isTrue();
+        assertThat(texts(SqlText.parse("select top (5) id from users"))).containsExactly("id");
+    }
+
+    @Test
+    public void row_limits() {
+        assertThat(SqlText.parse("select id from users limit 10").limitsRows()).isTrue();
+        assertThat(SqlText.parse("select id from users fetch first 10 rows only").limitsRows()).isTrue();
+        assertThat(SqlText.parse("select id from users where rownum <= 10").limitsRows()).isTrue();
+        assertThat(SqlText.parse("select id from users").limitsRows()).isFalse();
+        assertThat(SqlText.parse("select id from users where id in (select id from orders limit 10)").limitsRows()).isFalse();
+        assertThat(SqlText.parse("select id, top from users").limitsRows()).isFalse();
+    }
+
+    @Test
+    public void literals_and_comments_are_blanked() {
+        SqlText sql = SqlText.parse("select id /* , name */ from users -- limit 10\nwhere name = 'it''s a limit'");
+        assertThat(texts(sql)).containsExactly("id");
+        assertThat(sql.limitsRows()).isFalse();
+        assertThat(sql.containsKeyword("where")).isTrue();
+    }
+
+    @Test
+    public void compound_queries() {
+        assertThat(SqlText.parse("select id from users union all select id from admins").isCompound()).isTrue();
+        assertThat(SqlText.parse("select id from users where name = 'union'").isCompound()).isFalse();
+    }
+
+    @Test
+    public void not_a_query() {
+        SqlText sql = SqlText.parse("  UPDATE users SET name = ? WHERE id = ?");
+        assertThat(sql.isSelect()).isFalse();
+        assertThat(sql.selectItems()).isEmpty();
+        assertThat(SqlText.parse("selection").isSelect()).isFalse();
+    }
+
+    private static List<String> texts(SqlText sql) {
+        List<String> texts = new ArrayList<>();
+        for (SqlText.SelectItem item : sql.selectItems()) {
+            texts.add(item.text());
+        }
+        return texts;
+    }
+
+    private static List<String> labels(SqlText sql) {
+        List<String> labels = new ArrayList<>();
+        for (SqlText.SelectItem item : sql.selectItems()) {
+            labels.add(item.label());
+        }
+        return labels;
+    }
+}
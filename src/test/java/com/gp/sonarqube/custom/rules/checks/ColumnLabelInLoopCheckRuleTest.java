@@ -0,0 +1,18 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the ColumnLabelInLoopCheckRule on the noncompliant and
+ * compliant samples of src/test/files/ColumnLabelInLoopCheckRule.java
+ */
+public class ColumnLabelInLoopCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/ColumnLabelInLoopCheckRule.java", new ColumnLabelInLoopCheckRule());
+    }
+}
@@ -0,0 +1,18 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the ConnectionInLoopCheckRule on the noncompliant and
+ * compliant samples of src/test/files/ConnectionInLoopCheckRule.java
+ */
+public class ConnectionInLoopCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/ConnectionInLoopCheckRule.java", new ConnectionInLoopCheckRule());
+    }
+}
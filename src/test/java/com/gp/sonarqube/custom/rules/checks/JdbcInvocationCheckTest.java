@@ -0,0 +1,73 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import com.gp.sonarqube.custom.rules.JavaRulesDefinition;
+import com.gp.sonarqube.custom.rules.RulesList;
+import org.junit.Test;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.Checks;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author GP
+ * <p>
+ * verify that the rule properties declared by the JdbcInvocationCheck base
+ * class are declared as parameters of every rule extending it, and injected
+ * into the check instances created by the scanner from the active rules
+ */
+public class JdbcInvocationCheckTest {
+
+    @Test
+    public void rule_parameters_are_defined() {
+        RulesDefinition.Context context = new RulesDefinition.Context();
+        new JavaRulesDefinition().define(context);
+        RulesDefinition.Repository repository = context.repository(JavaRulesDefinition.REPOSITORY_KEY);
+        for (Class<? extends JavaCheck> checkClass : jdbcInvocationChecks()) {
+            RulesDefinition.Rule rule = repository.rule(checkClass.getAnnotation(Rule.class).key());
+            assertThat(rule.param("additionalOwnerTypes")).as(checkClass.getSimpleName()).isNotNull();
+            assertThat(rule.param("additionalMethodNames")).as(checkClass.getSimpleName()).isNotNull();
+        }
+    }
+
+    @Test
+    public void rule_parameters_are_injected() {
+        ActiveRulesBuilder activeRules = new ActiveRulesBuilder();
+        for (Class<? extends JavaCheck> checkClass : jdbcInvocationChecks()) {
+            activeRules.create(ruleKey(checkClass))
+                    .setParam("additionalOwnerTypes", "org.springframework.jdbc.core.JdbcTemplate")
+                    .setParam("additionalMethodNames", "queryForList")
+                    .activate();
+        }
+        Checks<JavaCheck> checks = new CheckFactory(activeRules.build()).<JavaCheck>create(JavaRulesDefinition.REPOSITORY_KEY)
+                .addAnnotatedChecks((Iterable) RulesList.getJavaChecks());
+        for (Class<? extends JavaCheck> checkClass : jdbcInvocationChecks()) {
+            JdbcInvocationCheck check = (JdbcInvocationCheck) checks.of(ruleKey(checkClass));
+            assertThat(check).as(checkClass.getSimpleName()).isNotNull();
+            assertThat(check.additionalOwnerTypes).isEqualTo("org.springframework.jdbc.core.JdbcTemplate");
+            assertThat(check.additionalMethodNames).isEqualTo("queryForList");
+        }
+    }
+
+    private static List<Class<? extends JavaCheck>> jdbcInvocationChecks() {
+        List<Class<? extends JavaCheck>> checkClasses = new ArrayList<>();
+        for (Class<? extends JavaCheck> checkClass : RulesList.getJavaChecks()) {
+            if (JdbcInvocationCheck.class.isAssignableFrom(checkClass)) {
+                checkClasses.add(checkClass);
+            }
+        }
+        assertThat(checkClasses).isNotEmpty();
+        return checkClasses;
+    }
+
+    private static RuleKey ruleKey(Class<? extends JavaCheck> checkClass) {
+        return RuleKey.of(JavaRulesDefinition.REPOSITORY_KEY, checkClass.getAnnotation(Rule.class).key());
+    }
+}
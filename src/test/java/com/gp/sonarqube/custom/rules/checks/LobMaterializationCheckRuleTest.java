@@ -0,0 +1,26 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the LobMaterializationCheckRule on the noncompliant and
+ * compliant samples of src/test/files/LobMaterializationCheckRule.java, and
+ * the invocations without arguments matched by the additional method names
+ */
+public class LobMaterializationCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/LobMaterializationCheckRule.java", new LobMaterializationCheckRule());
+    }
+
+    @Test
+    public void additional_methods_without_arguments() {
+        LobMaterializationCheckRule check = new LobMaterializationCheckRule();
+        check.additionalMethodNames = "free, close";
+        JavaCheckVerifier.verify("src/test/files/LobMaterializationCheckRuleAdditionalMethods.java", check);
+    }
+}
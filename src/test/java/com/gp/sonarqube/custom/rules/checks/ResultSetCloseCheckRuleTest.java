@@ -0,0 +1,18 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the ResultSetCloseCheckRule on the noncompliant and
+ * compliant samples of src/test/files/ResultSetCloseCheckRule.java
+ */
+public class ResultSetCloseCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/ResultSetCloseCheckRule.java", new ResultSetCloseCheckRule());
+    }
+}
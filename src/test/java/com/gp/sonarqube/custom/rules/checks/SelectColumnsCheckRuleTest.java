@@ -0,0 +1,18 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the SelectColumnsCheckRule on the noncompliant and
+ * compliant samples of src/test/files/SelectColumnsCheckRule.java
+ */
+public class SelectColumnsCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/SelectColumnsCheckRule.java", new SelectColumnsCheckRule());
+    }
+}
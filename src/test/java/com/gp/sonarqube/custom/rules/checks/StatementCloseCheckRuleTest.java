@@ -0,0 +1,18 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the StatementCloseCheckRule on the noncompliant and
+ * compliant samples of src/test/files/StatementCloseCheckRule.java
+ */
+public class StatementCloseCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/StatementCloseCheckRule.java", new StatementCloseCheckRule());
+    }
+}
@@ -0,0 +1,28 @@
+package com.gp.sonarqube.custom.rules.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * @author GP
+ * <p>
+ * verify the issues raised by the UnboundedResultSetCheckRule on the
+ * noncompliant and compliant samples of
+ * src/test/files/UnboundedResultSetCheckRule.java, and the statements
+ * coming from the exempt types, through casts, unwrap calls and local
+ * variables
+ */
+public class UnboundedResultSetCheckRuleTest {
+
+    @Test
+    public void test() {
+        JavaCheckVerifier.verify("src/test/files/UnboundedResultSetCheckRule.java", new UnboundedResultSetCheckRule());
+    }
+
+    @Test
+    public void exempt_types() {
+        UnboundedResultSetCheckRule check = new UnboundedResultSetCheckRule();
+        check.exemptTypes = "StreamingConnection, StreamingStatement";
+        JavaCheckVerifier.verify("src/test/files/UnboundedResultSetCheckRuleExemptTypes.java", check);
+    }
+}